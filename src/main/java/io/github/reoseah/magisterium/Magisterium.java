@@ -2,17 +2,36 @@ package io.github.reoseah.magisterium;
 
 import io.github.reoseah.magisterium.block.ArcaneTableBlock;
 import io.github.reoseah.magisterium.block.GlyphBlock;
+import io.github.reoseah.magisterium.effect.LecternCasts;
+import io.github.reoseah.magisterium.effect.SpellEffectScheduler;
 import io.github.reoseah.magisterium.item.BookmarkItem;
 import io.github.reoseah.magisterium.item.SpellBookItem;
 import io.github.reoseah.magisterium.item.SpellPageItem;
+import io.github.reoseah.magisterium.network.GlyphStrokePayload;
 import io.github.reoseah.magisterium.network.SlotLayoutPayload;
+import io.github.reoseah.magisterium.network.SpellChangesPayload;
+import io.github.reoseah.magisterium.network.SpellParticlesPayload;
 import io.github.reoseah.magisterium.network.StartUtterancePayload;
 import io.github.reoseah.magisterium.network.StopUtterancePayload;
 import io.github.reoseah.magisterium.network.UseBookmarkPayload;
 import io.github.reoseah.magisterium.recipe.*;
 import io.github.reoseah.magisterium.screen.ArcaneTableScreenHandler;
 import io.github.reoseah.magisterium.screen.SpellBookScreenHandler;
+import io.github.reoseah.magisterium.world.BlockChangeBatch;
+import io.github.reoseah.magisterium.world.BlockIndex;
+import io.github.reoseah.magisterium.world.BuildPermissions;
+import io.github.reoseah.magisterium.world.Flammability;
+import io.github.reoseah.magisterium.world.GlyphStructures;
+import io.github.reoseah.magisterium.world.SectionTargetCache;
+import io.github.reoseah.magisterium.world.SpellFires;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.CommonLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.event.player.UseBlockCallback;
 import net.fabricmc.fabric.api.itemgroup.v1.FabricItemGroup;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
@@ -28,6 +47,7 @@ import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.minecraft.screen.NamedScreenHandlerFactory;
 import net.minecraft.screen.ScreenHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.sound.BlockSoundGroup;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.text.Text;
@@ -36,6 +56,7 @@ import net.minecraft.util.Hand;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 import net.minecraft.world.event.GameEvent;
 import org.slf4j.Logger;
@@ -58,6 +79,8 @@ public class Magisterium implements ModInitializer {
 
         Registry.register(Registries.DATA_COMPONENT_TYPE, "magisterium:current_page", SpellBookItem.CURRENT_PAGE);
         Registry.register(Registries.DATA_COMPONENT_TYPE, "magisterium:page_data", SpellBookItem.PAGES);
+        Registry.register(Registries.DATA_COMPONENT_TYPE, "magisterium:fold_utterances", SpellBookItem.FOLD_UTTERANCES);
+        Registry.register(Registries.DATA_COMPONENT_TYPE, "magisterium:lectern_owner", SpellBookItem.LECTERN_OWNER);
         Registry.register(Registries.DATA_COMPONENT_TYPE, "magisterium:spell", SpellPageItem.SPELL);
 
         var group = FabricItemGroup.builder() //
@@ -81,20 +104,41 @@ public class Magisterium implements ModInitializer {
         Registry.register(Registries.RECIPE_TYPE, "magisterium:spell_book", SpellBookRecipe.TYPE);
 
         Registry.register(Registries.RECIPE_SERIALIZER, "magisterium:spell_crafting", SpellBookCraftingRecipe.Serializer.INSTANCE);
-        Registry.register(Registries.RECIPE_SERIALIZER, "magisterium:awaken_the_flame", AwakenFlameRecipe.SERIALIZER);
-        Registry.register(Registries.RECIPE_SERIALIZER, "magisterium:quench_the_flame", QuenchFlameRecipe.SERIALIZER);
+        Registry.register(Registries.RECIPE_SERIALIZER, "magisterium:block_transform", BlockTransformRecipe.SERIALIZER);
         Registry.register(Registries.RECIPE_SERIALIZER, "magisterium:conflagrate", ConflagrateRecipe.SERIALIZER);
-        Registry.register(Registries.RECIPE_SERIALIZER, "magisterium:glyphic_ignition", GlyphicIgnitionRecipe.SERIALIZER);
 
         Registry.register(Registries.SCREEN_HANDLER, "magisterium:spell_book", SpellBookScreenHandler.TYPE);
         Registry.register(Registries.SCREEN_HANDLER, "magisterium:arcane_table", ArcaneTableScreenHandler.TYPE);
 
+        MagisteriumGameRules.initialize();
+        MagisteriumAttachments.initialize();
+
         UseBlockCallback.EVENT.register(Magisterium::interact);
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> MagisteriumCommands.register(dispatcher));
+
+        ServerTickEvents.END_SERVER_TICK.register(LecternCasts.INSTANCE::tick);
+        ServerTickEvents.END_SERVER_TICK.register(SpellEffectScheduler.INSTANCE::tick);
+        ServerTickEvents.END_WORLD_TICK.register(world -> SpellFires.get(world).tick(world));
+        ServerChunkEvents.CHUNK_LOAD.register(GlyphStructures::onChunkLoaded);
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> SpellFires.get(world).onChunkUnloaded(chunk));
+        CommonLifecycleEvents.TAGS_LOADED.register((registries, client) -> {
+            BlockIndex.FLAME_TARGETS.invalidate();
+            Flammability.invalidate();
+            SectionTargetCache.FLAMMABLE.invalidate();
+            BlockTransformRecipe.invalidateTargetCaches();
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            LecternCasts.INSTANCE.clear();
+            SpellEffectScheduler.INSTANCE.clear();
+        });
 
         PayloadTypeRegistry.playC2S().register(StartUtterancePayload.ID, StartUtterancePayload.CODEC);
         PayloadTypeRegistry.playC2S().register(StopUtterancePayload.ID, StopUtterancePayload.CODEC);
         PayloadTypeRegistry.playC2S().register(UseBookmarkPayload.ID, UseBookmarkPayload.CODEC);
         PayloadTypeRegistry.playC2S().register(SlotLayoutPayload.ID, SlotLayoutPayload.CODEC);
+        PayloadTypeRegistry.playC2S().register(GlyphStrokePayload.ID, GlyphStrokePayload.CODEC);
+        PayloadTypeRegistry.playS2C().register(SpellParticlesPayload.ID, SpellParticlesPayload.CODEC);
+        PayloadTypeRegistry.playS2C().register(SpellChangesPayload.ID, SpellChangesPayload.CODEC);
 
         ServerPlayNetworking.registerGlobalReceiver(StartUtterancePayload.ID, (payload, context) -> {
             if (context.player().currentScreenHandler instanceof SpellBookScreenHandler handler) {
@@ -109,8 +153,10 @@ public class Magisterium implements ModInitializer {
         ServerPlayNetworking.registerGlobalReceiver(SlotLayoutPayload.ID, (payload, context) -> {
             if (context.player().currentScreenHandler instanceof SpellBookScreenHandler handler) {
                 handler.applySlotProperties(payload.layout());
+                handler.setFoldUtterances(payload.utterances());
             }
         });
+        ServerPlayNetworking.registerGlobalReceiver(GlyphStrokePayload.ID, (payload, context) -> placeStroke(context.player(), payload.hand(), payload.positions()));
         ServerPlayNetworking.registerGlobalReceiver(UseBookmarkPayload.ID, (payload, context) -> {
             if (context.player().currentScreenHandler instanceof SpellBookScreenHandler hemonomiconScreen) {
                 hemonomiconScreen.currentPage.set(payload.page());
@@ -159,7 +205,8 @@ public class Magisterium implements ModInitializer {
             }
         }
 
-        if (stack.isOf(Items.LAPIS_LAZULI)) {
+        // on the client, lapis is recorded as a stroke and placed all at once when the button is released
+        if (stack.isOf(Items.LAPIS_LAZULI) && !world.isClient) {
             if (placeBlock(player, world, hand, hitResult, stack, GlyphBlock.INSTANCE)) {
                 if (!player.getAbilities().creativeMode) {
                     stack.decrement(1);
@@ -171,6 +218,47 @@ public class Magisterium implements ModInitializer {
         return ActionResult.PASS;
     }
 
+    // places the glyphs of a stroke as one batch, so that a long stroke is one block update per section
+    // instead of one update cascade per glyph, and takes the lapis for all of them at once
+    private static void placeStroke(ServerPlayerEntity player, Hand hand, LongList positions) {
+        var stack = player.getStackInHand(hand);
+        if (player.isSpectator() || !player.canModifyBlocks() || !stack.isOf(Items.LAPIS_LAZULI)) {
+            return;
+        }
+        var world = player.getServerWorld();
+        int available = player.getAbilities().creativeMode ? Integer.MAX_VALUE : stack.getCount();
+        var batch = new BlockChangeBatch(world, new BuildPermissions(player, world), null);
+        var placed = new LongOpenHashSet();
+        var pos = new BlockPos.Mutable();
+        for (int i = 0; i < positions.size() && placed.size() < available; i++) {
+            pos.set(positions.getLong(i));
+            if (placed.contains(pos.asLong())
+                    || !player.canInteractWithBlockAt(pos, 1)
+                    || !world.isChunkLoaded(pos)
+                    || !world.getBlockState(pos).isReplaceable()
+                    || !GlyphBlock.INSTANCE.getDefaultState().canPlaceAt(world, pos)) {
+                continue;
+            }
+            var state = GlyphBlock.INSTANCE.getDefaultState().with(GlyphBlock.TYPE, Direction.byId(world.getRandom().nextInt(6)));
+            if (batch.set(pos, state)) {
+                placed.add(pos.asLong());
+            }
+        }
+        if (placed.isEmpty()) {
+            return;
+        }
+        batch.apply();
+        if (!player.getAbilities().creativeMode) {
+            stack.decrement(placed.size());
+        }
+
+        pos.set(positions.getLong(0));
+        BlockSoundGroup sounds = GlyphBlock.INSTANCE.getDefaultState().getSoundGroup();
+        world.playSound(null, pos, sounds.getPlaceSound(), SoundCategory.BLOCKS, (sounds.getVolume() + 1.0F) / 2.0F,
+                sounds.getPitch() * 0.8F);
+        world.emitGameEvent(player, GameEvent.BLOCK_PLACE, pos);
+    }
+
     private static boolean placeBlock(PlayerEntity player, World world, Hand hand, BlockHitResult hitResult,
                                       ItemStack stack, Block block) {
         // placement code derived from BlockItem.useOnBlock
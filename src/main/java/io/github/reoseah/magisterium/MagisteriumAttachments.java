@@ -0,0 +1,34 @@
+package io.github.reoseah.magisterium;
+
+import io.github.reoseah.magisterium.world.GlyphStructures;
+import io.github.reoseah.magisterium.world.PositionSet;
+import io.github.reoseah.magisterium.world.SpellFires;
+import io.github.reoseah.magisterium.world.SpellJournal;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentRegistry;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
+import net.minecraft.util.Identifier;
+
+public class MagisteriumAttachments {
+    public static final AttachmentType<PositionSet> GLYPHS = AttachmentRegistry.<PositionSet>builder() //
+            .buildAndRegister(Identifier.of("magisterium:glyph_index"));
+    // the same sets as above, but only for chunks with glyphs, so that looking into a chunk doesn't add save data to it
+    public static final AttachmentType<PositionSet> SAVED_GLYPHS = AttachmentRegistry.<PositionSet>builder() //
+            .persistent(PositionSet.CODEC) //
+            .buildAndRegister(Identifier.of("magisterium:glyphs"));
+    // not saved, since what it matches depends on tags, which can change between restarts
+    public static final AttachmentType<PositionSet> FLAME_TARGETS = AttachmentRegistry.<PositionSet>builder() //
+            .buildAndRegister(Identifier.of("magisterium:flame_targets"));
+    // not saved either, rebuilt from the glyph index when it's first needed
+    public static final AttachmentType<GlyphStructures> GLYPH_STRUCTURES = AttachmentRegistry.<GlyphStructures>builder() //
+            .buildAndRegister(Identifier.of("magisterium:glyph_structures"));
+    public static final AttachmentType<SpellFires> SPELL_FIRES = AttachmentRegistry.<SpellFires>builder() //
+            .initializer(SpellFires::new) //
+            .buildAndRegister(Identifier.of("magisterium:spell_fires"));
+    public static final AttachmentType<SpellJournal> SPELL_JOURNAL = AttachmentRegistry.<SpellJournal>builder() //
+            .initializer(SpellJournal::new) //
+            .buildAndRegister(Identifier.of("magisterium:spell_journal"));
+
+    public static void initialize() {
+        // registers the attachment types above by loading the class
+    }
+}
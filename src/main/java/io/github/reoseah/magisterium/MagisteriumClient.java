@@ -2,6 +2,13 @@ package io.github.reoseah.magisterium;
 
 import io.github.reoseah.magisterium.block.ArcaneTableBlock;
 import io.github.reoseah.magisterium.block.GlyphBlock;
+import io.github.reoseah.magisterium.client.DeferredClientLighting;
+import io.github.reoseah.magisterium.client.GlyphStroke;
+import io.github.reoseah.magisterium.client.SpellChanges;
+import io.github.reoseah.magisterium.client.SpellParticles;
+import io.github.reoseah.magisterium.client.SpellPreview;
+import io.github.reoseah.magisterium.network.SpellChangesPayload;
+import io.github.reoseah.magisterium.network.SpellParticlesPayload;
 import io.github.reoseah.magisterium.screen.ArcaneTableScreen;
 import io.github.reoseah.magisterium.screen.ArcaneTableScreenHandler;
 import io.github.reoseah.magisterium.screen.SpellBookScreen;
@@ -9,6 +16,11 @@ import io.github.reoseah.magisterium.screen.SpellBookScreenHandler;
 import io.github.reoseah.magisterium.spellbook.SpellDataLoader;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.blockrenderlayer.v1.BlockRenderLayerMap;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderEvents;
+import net.fabricmc.fabric.api.event.player.UseBlockCallback;
 import net.fabricmc.fabric.impl.resource.loader.ResourceManagerHelperImpl;
 import net.minecraft.client.gui.screen.ingame.HandledScreens;
 import net.minecraft.client.render.RenderLayer;
@@ -26,5 +38,14 @@ public class MagisteriumClient implements ClientModInitializer {
 
         HandledScreens.register(SpellBookScreenHandler.TYPE, SpellBookScreen::new);
         HandledScreens.register(ArcaneTableScreenHandler.TYPE, ArcaneTableScreen::new);
+
+        ClientPlayNetworking.registerGlobalReceiver(SpellParticlesPayload.ID, (payload, context) -> SpellParticles.play(payload));
+        ClientPlayNetworking.registerGlobalReceiver(SpellChangesPayload.ID, (payload, context) -> SpellChanges.apply(payload));
+        ClientTickEvents.END_CLIENT_TICK.register(SpellParticles::tick);
+        ClientTickEvents.END_CLIENT_TICK.register(GlyphStroke::tick);
+        ClientTickEvents.END_CLIENT_TICK.register(DeferredClientLighting::tick);
+        UseBlockCallback.EVENT.register(GlyphStroke::interact);
+        WorldRenderEvents.AFTER_TRANSLUCENT.register(SpellPreview::render);
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> SpellPreview.clear());
     }
 }
\ No newline at end of file
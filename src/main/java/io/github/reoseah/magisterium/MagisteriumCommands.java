@@ -0,0 +1,47 @@
+package io.github.reoseah.magisterium;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import io.github.reoseah.magisterium.world.SpellJournal;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+public class MagisteriumCommands {
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(CommandManager.literal("magisterium") //
+                .requires(source -> source.hasPermissionLevel(2)) //
+                .then(CommandManager.literal("journal") //
+                        .executes(MagisteriumCommands::listJournal)) //
+                .then(CommandManager.literal("rollback") //
+                        .then(CommandManager.argument("id", LongArgumentType.longArg(0)) //
+                                .executes(MagisteriumCommands::rollback))));
+    }
+
+    private static int listJournal(CommandContext<ServerCommandSource> context) {
+        var source = context.getSource();
+        var entries = SpellJournal.get(source.getWorld()).getEntries();
+        if (entries.isEmpty()) {
+            source.sendFeedback(() -> Text.translatable("magisterium.commands.journal.empty"), false);
+            return 0;
+        }
+        for (var entry : entries) {
+            source.sendFeedback(() -> Text.translatable("magisterium.commands.journal.entry", entry.id(), entry.caster(), entry.changes().size()), false);
+        }
+        return entries.size();
+    }
+
+    private static int rollback(CommandContext<ServerCommandSource> context) {
+        var source = context.getSource();
+        long id = LongArgumentType.getLong(context, "id");
+        var entry = SpellJournal.get(source.getWorld()).find(source.getWorld(), id);
+        if (entry == null) {
+            source.sendError(Text.translatable("magisterium.commands.rollback.not_found", id));
+            return 0;
+        }
+        int restored = SpellJournal.rollback(source.getWorld(), entry.changes());
+        source.sendFeedback(() -> Text.translatable("magisterium.commands.rollback.success", restored, entry.changes().size(), id), true);
+        return restored;
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.reoseah.magisterium;
+
+import net.fabricmc.fabric.api.gamerule.v1.GameRuleFactory;
+import net.fabricmc.fabric.api.gamerule.v1.GameRuleRegistry;
+import net.minecraft.world.GameRules;
+
+public class MagisteriumGameRules {
+    // how many positions area spells may read per tick in total, split between all casting players
+    public static final GameRules.Key<GameRules.IntRule> SPELL_BLOCKS_PER_TICK = GameRuleRegistry.register("magisterium:spellBlocksPerTick", GameRules.Category.UPDATES, GameRuleFactory.createIntRule(8192, 1));
+    // how many positions, estimated before casting, a player's queued spells may read in total
+    public static final GameRules.Key<GameRules.IntRule> SPELL_QUOTA_PER_PLAYER = GameRuleRegistry.register("magisterium:spellQuotaPerPlayer", GameRules.Category.UPDATES, GameRuleFactory.createIntRule(131072, 0));
+    // scan spell areas on worker threads using copies of the chunk sections
+    public static final GameRules.Key<GameRules.BooleanRule> PARALLEL_SPELL_SCANS = GameRuleRegistry.register("magisterium:parallelSpellScans", GameRules.Category.UPDATES, GameRuleFactory.createBooleanRule(false));
+    // how many fires placed by spells may burn at once in a world, spells don't place more past that
+    public static final GameRules.Key<GameRules.IntRule> MAX_SPELL_FIRES = GameRuleRegistry.register("magisterium:maxSpellFires", GameRules.Category.UPDATES, GameRuleFactory.createIntRule(1024, 0));
+    // ticks after which fire placed by spells burns out, 0 to let it burn like any other fire
+    public static final GameRules.Key<GameRules.IntRule> SPELL_FIRE_DURATION = GameRuleRegistry.register("magisterium:spellFireDuration", GameRules.Category.UPDATES, GameRuleFactory.createIntRule(0, 0));
+    // how many recent casts per world keep their block changes in memory for rollback
+    public static final GameRules.Key<GameRules.IntRule> SPELL_JOURNAL_SIZE = GameRuleRegistry.register("magisterium:spellJournalSize", GameRules.Category.MISC, GameRuleFactory.createIntRule(32, 0));
+    // write the changes of casts pushed out of memory to the world folder, so they can still be rolled back
+    public static final GameRules.Key<GameRules.BooleanRule> SPELL_JOURNAL_TO_DISK = GameRuleRegistry.register("magisterium:spellJournalToDisk", GameRules.Category.MISC, GameRuleFactory.createBooleanRule(false));
+    // ticks after a lectern powered with redstone casts a spell before another one in the same chunk can
+    public static final GameRules.Key<GameRules.IntRule> LECTERN_CAST_COOLDOWN = GameRuleRegistry.register("magisterium:lecternCastCooldown", GameRules.Category.UPDATES, GameRuleFactory.createIntRule(20, 0));
+    // send the changes of deterministic spells to clients as a description they replay, instead of every block
+    public static final GameRules.Key<GameRules.BooleanRule> REPLICATE_SPELL_CHANGES = GameRuleRegistry.register("magisterium:replicateSpellChanges", GameRules.Category.UPDATES, GameRuleFactory.createBooleanRule(false));
+
+    public static void initialize() {
+        // registers the rules above by loading the class
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.reoseah.magisterium.client;
+
+import io.github.reoseah.magisterium.world.DeferredLighting;
+import net.minecraft.client.MinecraftClient;
+
+// Implemented on LightingProvider by a client mixin. Deferred checks are queued per section
+// and run a few sections per tick, so a large batch of changes doesn't relight in one frame.
+public interface DeferredClientLighting extends DeferredLighting {
+    int SECTIONS_PER_TICK = 32;
+
+    void magisterium$runDeferredChecks(int maxSections);
+
+    static void tick(MinecraftClient client) {
+        if (client.world != null) {
+            ((DeferredClientLighting) client.world.getLightingProvider()).magisterium$runDeferredChecks(SECTIONS_PER_TICK);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.reoseah.magisterium.client;
+
+import io.github.reoseah.magisterium.network.GlyphStrokePayload;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.ItemPlacementContext;
+import net.minecraft.item.Items;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.Hand;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.hit.HitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+// Records the glyphs painted by dragging lapis with the use button held, sent as one packet on release.
+public class GlyphStroke {
+    private static final LongArrayList POSITIONS = new LongArrayList();
+    private static @Nullable Hand hand;
+
+    // registered as a UseBlockCallback, the server places single glyphs through Magisterium#interact
+    public static ActionResult interact(PlayerEntity player, World world, Hand strokeHand, BlockHitResult hit) {
+        if (!world.isClient
+                || !player.getStackInHand(strokeHand).isOf(Items.LAPIS_LAZULI)
+                || player.isSpectator()
+                || !player.canModifyBlocks()
+                || !player.canModifyAt(world, hit.getBlockPos())) {
+            return ActionResult.PASS;
+        }
+        if (hand == null) {
+            hand = strokeHand;
+            POSITIONS.clear();
+            extend(new ItemPlacementContext(player, strokeHand, player.getStackInHand(strokeHand), hit).getBlockPos());
+        }
+        return ActionResult.CONSUME;
+    }
+
+    public static void tick(MinecraftClient client) {
+        if (hand == null) {
+            return;
+        }
+        if (client.player == null || !client.player.getStackInHand(hand).isOf(Items.LAPIS_LAZULI)) {
+            hand = null;
+            return;
+        }
+        if (client.options.useKey.isPressed()) {
+            if (client.crosshairTarget instanceof BlockHitResult hit && hit.getType() == HitResult.Type.BLOCK) {
+                extend(new ItemPlacementContext(client.player, hand, client.player.getStackInHand(hand), hit).getBlockPos());
+            }
+            return;
+        }
+        ClientPlayNetworking.send(GlyphStrokePayload.of(hand, POSITIONS));
+        hand = null;
+    }
+
+    private static void extend(BlockPos target) {
+        if (POSITIONS.isEmpty()) {
+            POSITIONS.add(target.asLong());
+            return;
+        }
+        var pos = BlockPos.fromLong(POSITIONS.getLong(POSITIONS.size() - 1)).mutableCopy();
+        while (!pos.equals(target) && POSITIONS.size() < GlyphStrokePayload.MAX_LENGTH) {
+            pos.move(Integer.signum(target.getX() - pos.getX()), Integer.signum(target.getY() - pos.getY()), Integer.signum(target.getZ() - pos.getZ()));
+            POSITIONS.add(pos.asLong());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.reoseah.magisterium.client;
+
+import io.github.reoseah.magisterium.network.SpellChangesPayload;
+import io.github.reoseah.magisterium.world.DeferredLighting;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+// Applies the block changes described by SpellChangesPayload to the client world.
+// Blocks are written to the chunk directly, with one re-render per section and light checks deferred,
+// rather than going through the per-block updates of handleBlockUpdate.
+public class SpellChanges {
+    public static void apply(SpellChangesPayload payload) {
+        var client = MinecraftClient.getInstance();
+        var world = client.world;
+        if (world == null || payload.from().length != payload.to().length) {
+            return;
+        }
+        var remap = new Int2IntOpenHashMap(payload.from(), payload.to());
+        var box = payload.area().getBox();
+        var pos = new BlockPos.Mutable();
+        var lighting = (DeferredLighting) world.getLightingProvider();
+        lighting.magisterium$deferChecks();
+        try {
+            for (long section : payload.sections()) {
+                int sectionX = ChunkSectionPos.unpackX(section), sectionY = ChunkSectionPos.unpackY(section), sectionZ = ChunkSectionPos.unpackZ(section);
+                if (!world.getChunkManager().isChunkLoaded(sectionX, sectionZ) || sectionY < world.getBottomSectionCoord() || sectionY >= world.getTopSectionCoord()) {
+                    continue;
+                }
+                var chunk = world.getChunk(sectionX, sectionZ);
+                var states = chunk.getSection(world.sectionCoordToIndex(sectionY)).getBlockStateContainer();
+                if (!states.hasAny(state -> remap.containsKey(Block.getRawIdFromState(state)))) {
+                    continue;
+                }
+                int originX = ChunkSectionPos.getBlockCoord(sectionX), originY = ChunkSectionPos.getBlockCoord(sectionY), originZ = ChunkSectionPos.getBlockCoord(sectionZ);
+                int minX = 16, minY = 16, minZ = 16, maxX = -1, maxY = -1, maxZ = -1;
+                for (int index = 0; index < 16 * 16 * 16; index++) {
+                    int x = index & 15, y = index >> 8, z = (index >> 4) & 15;
+                    pos.set(originX + x, originY + y, originZ + z);
+                    if (!box.contains(pos) || !payload.area().contains(pos.getX(), pos.getY(), pos.getZ())) {
+                        continue;
+                    }
+                    int to = remap.getOrDefault(Block.getRawIdFromState(states.get(x, y, z)), -1);
+                    if (to != -1 && chunk.setBlockState(pos, Block.getStateFromRawId(to), false) != null) {
+                        minX = Math.min(minX, x);
+                        minY = Math.min(minY, y);
+                        minZ = Math.min(minZ, z);
+                        maxX = Math.max(maxX, x);
+                        maxY = Math.max(maxY, y);
+                        maxZ = Math.max(maxZ, z);
+                    }
+                }
+                if (maxX != -1) {
+                    // one block around the changes, since they can change the faces of the neighboring sections
+                    client.worldRenderer.scheduleBlockRenders(originX + minX - 1, originY + minY - 1, originZ + minZ - 1, originX + maxX + 1, originY + maxY + 1, originZ + maxZ + 1);
+                }
+            }
+        } finally {
+            lighting.magisterium$flushChecks();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.reoseah.magisterium.client;
+
+import io.github.reoseah.magisterium.effect.SphericalShells;
+import io.github.reoseah.magisterium.network.SpellParticlesPayload;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.particle.ParticleEffect;
+import net.minecraft.particle.ParticleTypes;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.sound.SoundEvent;
+import net.minecraft.sound.SoundEvents;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.random.Random;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Plays the particles and sounds described by SpellParticlesPayload, with positions picked from the spell's falloff.
+public class SpellParticles {
+    private static final int DURATION = 20;
+    private static final int MAX_ACTIVE = 8;
+    private static final int MAX_RADIUS = 32;
+    private static final int MAX_SOUNDS = 4;
+
+    private static final Map<Identifier, Style> STYLES = Map.of( //
+            Identifier.of("magisterium:conflagrate"), new Style(ParticleTypes.FLAME, ParticleTypes.LARGE_SMOKE, SoundEvents.ITEM_FIRECHARGE_USE, SoundEvents.BLOCK_FIRE_AMBIENT));
+
+    private static final List<Active> ACTIVE = new ArrayList<>();
+
+    public static void play(SpellParticlesPayload payload) {
+        var style = STYLES.get(payload.spell());
+        // the falloff decides the size of the lookup tables, so it's not trusted blindly
+        if (style == null || payload.falloff().decayFinish() > MAX_RADIUS || payload.falloff().decayFinish() < 1) {
+            return;
+        }
+        if (ACTIVE.size() >= MAX_ACTIVE) {
+            ACTIVE.removeFirst();
+        }
+        ACTIVE.add(new Active(style, payload.center(), SphericalShells.of(payload.falloff()), Random.create(payload.seed())));
+    }
+
+    public static void tick(MinecraftClient client) {
+        if (ACTIVE.isEmpty()) {
+            return;
+        }
+        var world = client.world;
+        if (world == null || client.isPaused()) {
+            if (world == null) {
+                ACTIVE.clear();
+            }
+            return;
+        }
+        int limit = switch (client.options.getParticles().getValue()) {
+            case ALL -> 48;
+            case DECREASED -> 16;
+            case MINIMAL -> 0;
+        };
+        int perSpell = Math.max(limit / ACTIVE.size(), 1);
+        var iterator = ACTIVE.iterator();
+        while (iterator.hasNext()) {
+            var active = iterator.next();
+            active.tick(world, limit == 0 ? 0 : perSpell);
+            if (active.age >= DURATION) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private record Style(ParticleEffect particle, ParticleEffect trail, SoundEvent castSound, SoundEvent ambientSound) {
+    }
+
+    private static class Active {
+        private final Style style;
+        private final BlockPos center;
+        private final SphericalShells shells;
+        private final Random random;
+        private final BlockPos.Mutable pos = new BlockPos.Mutable();
+        private int age;
+        private int sounds;
+
+        private Active(Style style, BlockPos center, SphericalShells shells, Random random) {
+            this.style = style;
+            this.center = center;
+            this.shells = shells;
+            this.random = random;
+        }
+
+        private void tick(ClientWorld world, int particles) {
+            if (this.age++ == 0) {
+                world.playSound(this.center.getX() + .5, this.center.getY() + .5, this.center.getZ() + .5, this.style.castSound, SoundCategory.PLAYERS, 1, 1, false);
+            }
+            int count = this.shells.getShellEnd(this.shells.getShellCount() - 1);
+            for (int i = 0; i < particles; i++) {
+                int offset = this.shells.getOffset(this.random.nextInt(count));
+                float chance = this.shells.getChance(SphericalShells.unpackX(offset), SphericalShells.unpackY(offset), SphericalShells.unpackZ(offset));
+                if (this.random.nextFloat() >= chance) {
+                    continue;
+                }
+                this.pos.set(this.center, SphericalShells.unpackX(offset), SphericalShells.unpackY(offset), SphericalShells.unpackZ(offset));
+                if (!world.getBlockState(this.pos).isAir()) {
+                    continue;
+                }
+                double x = this.pos.getX() + this.random.nextDouble();
+                double y = this.pos.getY() + this.random.nextDouble() * .5;
+                double z = this.pos.getZ() + this.random.nextDouble();
+                world.addParticle(this.random.nextInt(4) == 0 ? this.style.trail : this.style.particle, x, y, z, 0, .02 + this.random.nextDouble() * .03, 0);
+                if (this.sounds < MAX_SOUNDS && this.random.nextInt(16) == 0) {
+                    this.sounds++;
+                    world.playSound(x, y, z, this.style.ambientSound, SoundCategory.BLOCKS, .6F, .8F + this.random.nextFloat() * .4F, false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.reoseah.magisterium.client;
+
+import io.github.reoseah.magisterium.effect.PreviewArea;
+import io.github.reoseah.magisterium.recipe.SpellBookRecipe;
+import io.github.reoseah.magisterium.world.SectionTargetCache;
+import io.github.reoseah.magisterium.world.SectionTraversal;
+import io.github.reoseah.magisterium.world.TrackedSection;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.WorldRenderer;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.ChunkSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Highlights the blocks a spell would affect while its utterance button is held,
+// rescanning only the sections that changed and doing a bounded amount of work per frame.
+public class SpellPreview {
+    // positions read per frame, about two full sections
+    private static final int BUDGET_PER_FRAME = 2 * 16 * 16 * 16;
+    private static final int MAX_HIGHLIGHTS = 2048;
+
+    private static final Map<Identifier, CachedRecipe> CACHES = new HashMap<>();
+
+    private static @Nullable SpellPreview active;
+
+    private final PreviewArea area;
+    private final SectionTargetCache cache;
+    private final int minSectionX, minSectionY, minSectionZ;
+    private final int sizeX, sizeY, sizeZ;
+    // by section index in the area, the section the targets were found in and its modification count at the time
+    private final @Nullable ChunkSection[] sections;
+    private final int[] modCounts;
+    private final LongArrayList[] targets;
+    private int cursor;
+
+    private SpellPreview(PreviewArea area, SectionTargetCache cache) {
+        this.area = area;
+        this.cache = cache;
+        this.minSectionX = ChunkSectionPos.getSectionCoord(area.box().getMinX());
+        this.minSectionY = ChunkSectionPos.getSectionCoord(area.box().getMinY());
+        this.minSectionZ = ChunkSectionPos.getSectionCoord(area.box().getMinZ());
+        this.sizeX = ChunkSectionPos.getSectionCoord(area.box().getMaxX()) - this.minSectionX + 1;
+        this.sizeY = ChunkSectionPos.getSectionCoord(area.box().getMaxY()) - this.minSectionY + 1;
+        this.sizeZ = ChunkSectionPos.getSectionCoord(area.box().getMaxZ()) - this.minSectionZ + 1;
+
+        int count = this.sizeX * this.sizeY * this.sizeZ;
+        this.sections = new ChunkSection[count];
+        this.modCounts = new int[count];
+        this.targets = new LongArrayList[count];
+        for (int i = 0; i < count; i++) {
+            this.targets[i] = new LongArrayList();
+        }
+    }
+
+    public static void start(Identifier spell) {
+        var client = MinecraftClient.getInstance();
+        active = null;
+        if (client.world == null || client.player == null) {
+            return;
+        }
+        for (var entry : client.world.getRecipeManager().listAllOfType(SpellBookRecipe.TYPE)) {
+            if (entry.value().utterance.equals(spell)) {
+                var area = entry.value().getPreviewArea(client.player.getBlockPos());
+                if (area != null) {
+                    active = new SpellPreview(area, getCache(entry.id(), entry.value(), area));
+                }
+                return;
+            }
+        }
+    }
+
+    // one cache per recipe id for the whole session, the entries it leaves on sections are replaced rather than piling up,
+    // a recipe sent again after a reload only changes its filter
+    private static SectionTargetCache getCache(Identifier id, SpellBookRecipe recipe, PreviewArea area) {
+        var cached = CACHES.get(id);
+        if (cached == null) {
+            cached = new CachedRecipe(recipe, new SectionTargetCache(area.filter()));
+            CACHES.put(id, cached);
+        } else if (cached.recipe != recipe) {
+            cached.cache.setFilter(area.filter());
+            cached = new CachedRecipe(recipe, cached.cache);
+            CACHES.put(id, cached);
+        }
+        return cached.cache;
+    }
+
+    public static void stop() {
+        active = null;
+    }
+
+    public static void clear() {
+        active = null;
+        CACHES.clear();
+    }
+
+    public static boolean isActive() {
+        return active != null;
+    }
+
+    public static void render(WorldRenderContext context) {
+        var preview = active;
+        var client = MinecraftClient.getInstance();
+        if (preview == null || client.world == null || context.matrixStack() == null || context.consumers() == null) {
+            return;
+        }
+        preview.update(client.world);
+
+        var camera = context.camera().getPos();
+        var lines = context.consumers().getBuffer(RenderLayer.getLines());
+        var matrices = context.matrixStack();
+        int drawn = 0;
+        for (var positions : preview.targets) {
+            for (int i = 0; i < positions.size() && drawn < MAX_HIGHLIGHTS; i++, drawn++) {
+                long packed = positions.getLong(i);
+                double x = BlockPos.unpackLongX(packed) - camera.x;
+                double y = BlockPos.unpackLongY(packed) - camera.y;
+                double z = BlockPos.unpackLongZ(packed) - camera.z;
+                WorldRenderer.drawBox(matrices, lines, x, y, z, x + 1, y + 1, z + 1, .85F, .3F, .12F, .8F);
+            }
+        }
+    }
+
+    private void update(ClientWorld world) {
+        int spent = 0;
+        for (int checked = 0; checked < this.sections.length && spent < BUDGET_PER_FRAME; checked++) {
+            int index = this.cursor;
+            this.cursor = (this.cursor + 1) % this.sections.length;
+
+            int sectionY = this.minSectionY + index % this.sizeY;
+            int sectionZ = this.minSectionZ + index / this.sizeY % this.sizeZ;
+            int sectionX = this.minSectionX + index / (this.sizeY * this.sizeZ);
+            var section = world.getChunkManager().isChunkLoaded(sectionX, sectionZ) //
+                    ? SectionTraversal.getSection(world, sectionX, sectionY, sectionZ) //
+                    : null;
+            int modCount = section == null ? 0 : ((TrackedSection) section).magisterium$getModCount();
+            spent++;
+            if (section == this.sections[index] && modCount == this.modCounts[index]) {
+                continue;
+            }
+
+            var positions = this.targets[index];
+            positions.clear();
+            if (section != null) {
+                spent += this.cache.visit(section, sectionX, sectionY, sectionZ, this.area.box(), (pos, state) -> {
+                    if (this.area.selector().test(pos)) {
+                        positions.add(pos.asLong());
+                    }
+                });
+            }
+            this.sections[index] = section;
+            this.modCounts[index] = modCount;
+        }
+    }
+
+    private record CachedRecipe(SpellBookRecipe recipe, SectionTargetCache cache) {
+    }
+}
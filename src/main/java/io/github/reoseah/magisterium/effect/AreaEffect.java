@@ -0,0 +1,239 @@
+package io.github.reoseah.magisterium.effect;
+
+import io.github.reoseah.magisterium.Magisterium;
+import io.github.reoseah.magisterium.MagisteriumGameRules;
+import io.github.reoseah.magisterium.world.BlockVisitor;
+import io.github.reoseah.magisterium.world.BuildPermissions;
+import io.github.reoseah.magisterium.world.SectionTargetCache;
+import io.github.reoseah.magisterium.world.SectionTraversal;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.chunk.ChunkSection;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+// Finds matching blocks in an area one chunk section at a time while the spell is uttered,
+// then applies an action to them once it's finished. Each section gets its own random from a per-cast seed,
+// so targets are the same whether sections are scanned serially, in parallel or from a SectionTargetCache.
+public class AreaEffect extends TargetListEffect {
+    protected final @Nullable SectionTargetCache cache;
+    protected final Selector selector;
+    protected final long seed;
+    protected final boolean parallel;
+    protected final SectionTraversal traversal;
+
+    private final List<SectionScan> parallelScans = new ArrayList<>();
+    private @Nullable CompletableFuture<Void> parallelScan;
+    private boolean prepared;
+
+    public AreaEffect(ServerWorld world, BlockBox area, @Nullable BuildPermissions permissions, Predicate<BlockState> filter, Action action) {
+        this(world, area, permissions, filter, (pos, state, random) -> true, action);
+    }
+
+    public AreaEffect(ServerWorld world, BlockBox area, @Nullable BuildPermissions permissions, Predicate<BlockState> filter, Selector selector, Action action) {
+        this(world, area, permissions, filter, null, selector, action);
+    }
+
+    public AreaEffect(ServerWorld world, BlockBox area, @Nullable BuildPermissions permissions, SectionTargetCache cache, Selector selector, Action action) {
+        this(world, area, permissions, cache.getFilter(), cache, selector, action);
+    }
+
+    private AreaEffect(ServerWorld world, BlockBox area, @Nullable BuildPermissions permissions, Predicate<BlockState> filter, @Nullable SectionTargetCache cache, Selector selector, Action action) {
+        super(world, area, permissions, new LongArrayList(), filter, action);
+        this.cache = cache;
+        this.selector = selector;
+        this.seed = world.random.nextLong();
+        this.parallel = world.getGameRules().getBoolean(MagisteriumGameRules.PARALLEL_SPELL_SCANS);
+        this.traversal = new SectionTraversal(area, filter);
+    }
+
+    // sections in chunks that aren't loaded yet are assumed to be full of targets
+    @Override
+    public SpellCost estimateCost() {
+        int sections = 0;
+        long visited = 0;
+        int minSectionX = ChunkSectionPos.getSectionCoord(this.area.getMinX()), maxSectionX = ChunkSectionPos.getSectionCoord(this.area.getMaxX());
+        int minSectionY = ChunkSectionPos.getSectionCoord(this.area.getMinY()), maxSectionY = ChunkSectionPos.getSectionCoord(this.area.getMaxY());
+        int minSectionZ = ChunkSectionPos.getSectionCoord(this.area.getMinZ()), maxSectionZ = ChunkSectionPos.getSectionCoord(this.area.getMaxZ());
+        for (int sectionX = minSectionX; sectionX <= maxSectionX; sectionX++) {
+            for (int sectionZ = minSectionZ; sectionZ <= maxSectionZ; sectionZ++) {
+                if (!this.canModifyChunk(sectionX, sectionZ)) {
+                    continue;
+                }
+                boolean loaded = this.world.getChunkManager().isChunkLoaded(sectionX, sectionZ);
+                for (int sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    var section = loaded ? SectionTraversal.getSection(this.world, sectionX, sectionY, sectionZ) : null;
+                    if (loaded && (section == null || section.isEmpty())) {
+                        continue;
+                    }
+                    sections++;
+                    var cached = section != null && this.cache != null ? this.cache.getIfCurrent(section) : null;
+                    if (cached != null) {
+                        visited += cached.length;
+                    } else if (section == null || section.hasAny(this.filter)) {
+                        visited += SectionTraversal.getClippedVolume(sectionX, sectionY, sectionZ, this.area);
+                    }
+                }
+            }
+        }
+        int blocks = (int) Math.min(visited, Integer.MAX_VALUE);
+        return new SpellCost(sections, blocks, blocks);
+    }
+
+    @Override
+    public boolean isPrepared() {
+        return this.prepared;
+    }
+
+    @Override
+    public int prepare(int budget) {
+        if (this.parallel) {
+            return this.prepareInParallel(budget);
+        }
+        int spent = 0;
+        while (spent < budget && !this.traversal.isDone()) {
+            if (!this.canModifyChunk(this.traversal.getSectionX(), this.traversal.getSectionZ())) {
+                this.traversal.skipNext();
+                spent++;
+                continue;
+            }
+            if (!this.traversal.isNextSectionLoaded(this.world)) {
+                if (!this.isReleased()) {
+                    break;
+                }
+                this.traversal.skipNext();
+                spent++;
+                continue;
+            }
+            int sectionX = this.traversal.getSectionX(), sectionY = this.traversal.getSectionY(), sectionZ = this.traversal.getSectionZ();
+            var random = this.createRandom(sectionX, sectionY, sectionZ);
+            BlockVisitor visitor = (pos, state) -> {
+                if (this.selector.select(pos, state, random)) {
+                    this.targets.add(pos.asLong());
+                }
+            };
+            if (this.cache != null) {
+                var section = SectionTraversal.getSection(this.world, sectionX, sectionY, sectionZ);
+                spent += section == null ? 1 : this.cache.visit(section, sectionX, sectionY, sectionZ, this.area, visitor);
+                this.traversal.skipNext();
+            } else {
+                spent += this.traversal.visitNext(this.world, visitor);
+            }
+        }
+        this.prepared = this.traversal.isDone();
+        return spent;
+    }
+
+    // submits scans in the same order and for the same cost as the serial path,
+    // then collects their targets once all of them are done
+    private int prepareInParallel(int budget) {
+        int spent = 0;
+        while (spent < budget && !this.traversal.isDone()) {
+            if (!this.canModifyChunk(this.traversal.getSectionX(), this.traversal.getSectionZ())) {
+                this.traversal.skipNext();
+                spent++;
+                continue;
+            }
+            if (!this.traversal.isNextSectionLoaded(this.world)) {
+                if (!this.isReleased()) {
+                    break;
+                }
+                this.traversal.skipNext();
+                spent++;
+                continue;
+            }
+            spent += this.startScan(this.traversal.getSectionX(), this.traversal.getSectionY(), this.traversal.getSectionZ());
+            this.traversal.skipNext();
+        }
+        if (!this.traversal.isDone()) {
+            return spent;
+        }
+        if (this.parallelScan == null) {
+            this.parallelScan = CompletableFuture.allOf(this.parallelScans.stream().map(SectionScan::targets).toArray(CompletableFuture[]::new));
+        }
+        if (this.parallelScan.isDone()) {
+            for (var scan : this.parallelScans) {
+                try {
+                    if (scan.cached() != null && this.cache != null) {
+                        this.cache.put(scan.section(), scan.cached().modCount(), scan.cached().generation(), scan.cached().matches().join());
+                    }
+                    this.targets.addAll(scan.targets().join());
+                } catch (Exception e) {
+                    Magisterium.LOGGER.error("Failed to scan spell area {}", this.area, e);
+                }
+            }
+            this.parallelScans.clear();
+            this.prepared = true;
+        }
+        return spent;
+    }
+
+    // returns roughly how many positions a serial scan would read
+    private int startScan(int sectionX, int sectionY, int sectionZ) {
+        var section = SectionTraversal.getSection(this.world, sectionX, sectionY, sectionZ);
+        if (section == null || section.isEmpty()) {
+            return 1;
+        }
+        var random = this.createRandom(sectionX, sectionY, sectionZ);
+        var found = new LongArrayList();
+        BlockVisitor visitor = (pos, state) -> {
+            if (this.selector.select(pos, state, random)) {
+                found.add(pos.asLong());
+            }
+        };
+        if (this.cache != null) {
+            var cached = this.cache.getIfCurrent(section);
+            if (cached != null) {
+                // only reading positions that are known to match, cheap enough to do right here
+                SectionTargetCache.visit(section.getBlockStateContainer(), cached, sectionX, sectionY, sectionZ, this.area, visitor);
+                this.parallelScans.add(new SectionScan(section, null, CompletableFuture.completedFuture(found)));
+                return Math.max(cached.length, 1);
+            }
+        }
+        if (!section.hasAny(this.filter)) {
+            return 1;
+        }
+        if (this.cache != null) {
+            // possibly started by another cast over the same section
+            var scan = this.cache.scanAsync(section);
+            var targets = scan.matches().thenApply(matches -> {
+                SectionTargetCache.visit(scan.states(), matches, sectionX, sectionY, sectionZ, this.area, visitor);
+                return (LongList) found;
+            });
+            this.parallelScans.add(new SectionScan(section, scan, targets));
+            return SectionTraversal.getClippedVolume(sectionX, sectionY, sectionZ, this.area);
+        }
+        var states = section.getBlockStateContainer().copy();
+        this.parallelScans.add(new SectionScan(section, null, CompletableFuture.supplyAsync(() -> {
+            SectionTraversal.visitStates(states, sectionX, sectionY, sectionZ, this.area, this.filter, visitor);
+            return found;
+        }, Util.getMainWorkerExecutor())));
+        return SectionTraversal.getClippedVolume(sectionX, sectionY, sectionZ, this.area);
+    }
+
+    private Random createRandom(int sectionX, int sectionY, int sectionZ) {
+        return Random.create(HashCommon.murmurHash3(this.seed ^ ChunkSectionPos.asLong(sectionX, sectionY, sectionZ)));
+    }
+
+    // cached is the full scan of the section for the cache, if one was needed
+    private record SectionScan(ChunkSection section, SectionTargetCache.@Nullable Scan cached, CompletableFuture<LongList> targets) {
+    }
+
+    @FunctionalInterface
+    public interface Selector {
+        // called during the scan, possibly off the server thread, so it must only look at its arguments
+        boolean select(BlockPos pos, BlockState state, Random random);
+    }
+}
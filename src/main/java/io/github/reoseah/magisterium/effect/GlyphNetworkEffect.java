@@ -0,0 +1,104 @@
+package io.github.reoseah.magisterium.effect;
+
+import io.github.reoseah.magisterium.world.BlockIndex;
+import io.github.reoseah.magisterium.world.BuildPermissions;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Predicate;
+
+// Burns the network of touching glyphs the caster stands on from the caster outward,
+// walking it breadth-first through the glyph index.
+public class GlyphNetworkEffect extends TargetListEffect {
+    public static final int MAX_NETWORK_SIZE = 16384;
+    private static final int BURN_PER_TICK = 64;
+
+    private final BlockPos center;
+    private final LongOpenHashSet visited = new LongOpenHashSet();
+    private final BlockPos.Mutable neighbor = new BlockPos.Mutable();
+    private boolean started;
+    private int head;
+    private long lastBurnTime = -1;
+
+    public GlyphNetworkEffect(ServerWorld world, BlockBox area, @Nullable BuildPermissions permissions, BlockPos center, Predicate<BlockState> filter, Action action) {
+        super(world, area, permissions, new LongArrayList(), filter, action);
+        this.center = center;
+    }
+
+    @Override
+    public SpellCost estimateCost() {
+        // the network isn't known before walking it, the glyphs indexed around the caster are a lower bound
+        int minChunkX = ChunkSectionPos.getSectionCoord(this.area.getMinX()), maxChunkX = ChunkSectionPos.getSectionCoord(this.area.getMaxX());
+        int minChunkZ = ChunkSectionPos.getSectionCoord(this.area.getMinZ()), maxChunkZ = ChunkSectionPos.getSectionCoord(this.area.getMaxZ());
+        int blocks = 0;
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                blocks += BlockIndex.GLYPHS.count(this.world, chunkX, chunkZ);
+            }
+        }
+        blocks = Math.min(blocks, MAX_NETWORK_SIZE);
+        return new SpellCost(0, blocks, blocks);
+    }
+
+    @Override
+    public int prepare(int budget) {
+        if (!this.started) {
+            this.started = true;
+            // the caster stands in the glyph's block space, or on the block above it
+            for (int dy = 0; dy >= -1; dy--) {
+                if (this.tryAdd(this.neighbor.set(this.center, 0, dy, 0))) {
+                    break;
+                }
+            }
+        }
+        int spent = 0;
+        while (spent < budget && !this.isPrepared()) {
+            var pos = BlockPos.fromLong(this.targets.getLong(this.head++));
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dz = -1; dz <= 1; dz++) {
+                        if ((dx != 0 || dy != 0 || dz != 0) && this.targets.size() < MAX_NETWORK_SIZE) {
+                            this.tryAdd(this.neighbor.set(pos, dx, dy, dz));
+                        }
+                    }
+                }
+            }
+            spent += 1 + 26;
+        }
+        return spent;
+    }
+
+    private boolean tryAdd(BlockPos pos) {
+        long packed = pos.asLong();
+        if (!this.visited.add(packed)) {
+            return false;
+        }
+        int chunkX = ChunkSectionPos.getSectionCoord(pos.getX()), chunkZ = ChunkSectionPos.getSectionCoord(pos.getZ());
+        if (!this.canModifyChunk(chunkX, chunkZ) || !BlockIndex.GLYPHS.contains(this.world, pos)) {
+            return false;
+        }
+        this.targets.add(packed);
+        return true;
+    }
+
+    @Override
+    public boolean isPrepared() {
+        return this.started && this.head >= this.targets.size();
+    }
+
+    @Override
+    public int apply(int budget) {
+        // burns a little every tick, even if the scheduler has budget to spare for more rounds
+        if (this.world.getTime() == this.lastBurnTime) {
+            return 0;
+        }
+        this.lastBurnTime = this.world.getTime();
+        return super.apply(Math.min(budget, BURN_PER_TICK));
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.reoseah.magisterium.effect;
+
+import io.github.reoseah.magisterium.world.BuildPermissions;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+// Collects targets from an index like BlockIndex one chunk at a time while the spell is uttered.
+public class IndexEffect extends TargetListEffect {
+    protected final Source source;
+    private final int minChunkX, maxChunkX, minChunkZ, maxChunkZ;
+    private int chunkX, chunkZ;
+
+    public IndexEffect(ServerWorld world, BlockBox area, @Nullable BuildPermissions permissions, Source source, Predicate<BlockState> filter, Action action) {
+        super(world, area, permissions, new LongArrayList(), filter, action);
+        this.source = source;
+        this.minChunkX = ChunkSectionPos.getSectionCoord(area.getMinX());
+        this.maxChunkX = ChunkSectionPos.getSectionCoord(area.getMaxX());
+        this.minChunkZ = ChunkSectionPos.getSectionCoord(area.getMinZ());
+        this.maxChunkZ = ChunkSectionPos.getSectionCoord(area.getMaxZ());
+        this.chunkX = this.minChunkX;
+        this.chunkZ = this.minChunkZ;
+    }
+
+    @Override
+    public SpellCost estimateCost() {
+        int blocks = 0;
+        for (int chunkX = this.minChunkX; chunkX <= this.maxChunkX; chunkX++) {
+            for (int chunkZ = this.minChunkZ; chunkZ <= this.maxChunkZ; chunkZ++) {
+                if (this.canModifyChunk(chunkX, chunkZ)) {
+                    blocks += this.source.estimate(this.world, chunkX, chunkZ);
+                }
+            }
+        }
+        int chunks = (this.maxChunkX - this.minChunkX + 1) * (this.maxChunkZ - this.minChunkZ + 1);
+        return new SpellCost(chunks, blocks, blocks);
+    }
+
+    @Override
+    public int prepare(int budget) {
+        int spent = 0;
+        while (spent < budget && !this.isPrepared()) {
+            if (!this.canModifyChunk(this.chunkX, this.chunkZ)) {
+                spent++;
+            } else if (this.world.getChunkManager().isChunkLoaded(this.chunkX, this.chunkZ)) {
+                int before = this.targets.size();
+                this.source.forEach(this.world, this.chunkX, this.chunkZ, this.area, this.targets::add);
+                spent += 1 + this.targets.size() - before;
+            } else if (this.isReleased()) {
+                spent++;
+            } else {
+                break;
+            }
+            if (++this.chunkZ > this.maxChunkZ) {
+                this.chunkZ = this.minChunkZ;
+                this.chunkX++;
+            }
+        }
+        return spent;
+    }
+
+    @Override
+    public boolean isPrepared() {
+        return this.chunkX > this.maxChunkX;
+    }
+
+    @FunctionalInterface
+    public interface Source {
+        void forEach(World world, int chunkX, int chunkZ, BlockBox box, LongConsumer consumer);
+
+        // how many positions the chunk has, if that's known without loading or indexing it
+        default int estimate(World world, int chunkX, int chunkZ) {
+            return 0;
+        }
+    }
+}
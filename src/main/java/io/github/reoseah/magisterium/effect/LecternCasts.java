@@ -0,0 +1,158 @@
+package io.github.reoseah.magisterium.effect;
+
+import io.github.reoseah.magisterium.MagisteriumGameRules;
+import io.github.reoseah.magisterium.item.SpellBookItem;
+import io.github.reoseah.magisterium.recipe.SpellBookRecipe;
+import io.github.reoseah.magisterium.recipe.SpellBookRecipeInput;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.entity.LecternBlockEntity;
+import net.minecraft.inventory.SimpleInventory;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Casts the spells on the open fold of a book on a lectern powered with redstone, the signal strength picks one.
+// Blocks are changed with the permissions of the player who put the book there, and only while they're online.
+public class LecternCasts {
+    public static final LecternCasts INSTANCE = new LecternCasts();
+
+    private static final int MAX_QUEUED = 256;
+    private static final int STARTS_PER_TICK = 8;
+
+    // lectern -> redstone power when it was triggered
+    private final Object2IntLinkedOpenHashMap<Request> queue = new Object2IntLinkedOpenHashMap<>();
+    private final List<Cast> active = new ArrayList<>();
+    // chunk -> time when it can start another cast, by world
+    private final Map<ServerWorld, Long2LongOpenHashMap> cooldowns = new Reference2ObjectOpenHashMap<>();
+
+    public void enqueue(ServerWorld world, BlockPos pos, int power) {
+        if (this.queue.size() < MAX_QUEUED) {
+            this.queue.putIfAbsent(new Request(world, pos.toImmutable()), power);
+        }
+    }
+
+    public void tick(MinecraftServer server) {
+        int started = 0;
+        var iterator = this.queue.object2IntEntrySet().fastIterator();
+        while (iterator.hasNext() && started < STARTS_PER_TICK) {
+            var entry = iterator.next();
+            var world = entry.getKey().world;
+            var pos = entry.getKey().pos;
+            var cooldowns = this.cooldowns.computeIfAbsent(world, key -> new Long2LongOpenHashMap());
+            long chunk = ChunkPos.toLong(pos);
+            if (cooldowns.get(chunk) > world.getTime()) {
+                continue;
+            }
+            iterator.remove();
+            if (this.start(world, pos, entry.getIntValue())) {
+                cooldowns.put(chunk, world.getTime() + world.getGameRules().getInt(MagisteriumGameRules.LECTERN_CAST_COOLDOWN));
+                started++;
+            }
+        }
+
+        var casts = this.active.iterator();
+        while (casts.hasNext()) {
+            var cast = casts.next();
+            if (cast.world.getTime() >= cast.releaseTime) {
+                casts.remove();
+                this.finish(cast);
+            }
+        }
+
+        if (server.getTicks() % 1200 == 0) {
+            for (var entry : this.cooldowns.entrySet()) {
+                long time = entry.getKey().getTime();
+                entry.getValue().values().removeIf(until -> until <= time);
+            }
+        }
+    }
+
+    private boolean start(ServerWorld world, BlockPos pos, int power) {
+        var book = getBook(world, pos);
+        if (book == null) {
+            return false;
+        }
+        var utterances = book.getOrDefault(SpellBookItem.FOLD_UTTERANCES, List.of());
+        if (utterances.isEmpty()) {
+            return false;
+        }
+        var id = utterances.get(Math.min(Math.max(power, 1), utterances.size()) - 1);
+        var ownerId = book.get(SpellBookItem.LECTERN_OWNER);
+        var owner = ownerId == null ? null : world.getServer().getPlayerManager().getPlayer(ownerId);
+        if (owner == null) {
+            return false;
+        }
+
+        var input = new SpellBookRecipeInput(new SimpleInventory(16), owner, world, pos);
+        var recipe = world.getRecipeManager() //
+                .getAllMatches(SpellBookRecipe.TYPE, input, world) //
+                .stream() //
+                .map(RecipeEntry::value) //
+                .filter(candidate -> candidate.utterance.equals(id)) //
+                .findFirst() //
+                .orElse(null);
+        if (recipe == null) {
+            return false;
+        }
+        var effect = recipe.createEffect(input, world);
+        if (effect != null && !SpellEffectScheduler.INSTANCE.start(getCasterId(world, pos), "lectern@" + pos.toShortString(), effect).isAccepted()) {
+            return false;
+        }
+        long releaseTime = world.getTime() + (long) (recipe.duration * world.getTickManager().getTickRate());
+        this.active.add(new Cast(world, pos, book, recipe, input, effect, releaseTime));
+        return true;
+    }
+
+    private void finish(Cast cast) {
+        // the book was taken or swapped during the utterance
+        if (getBook(cast.world, cast.pos) != cast.book) {
+            if (cast.effect != null) {
+                SpellEffectScheduler.INSTANCE.cancel(cast.effect);
+            }
+            return;
+        }
+        var result = cast.recipe.craft(cast.input, cast.world.getRegistryManager());
+        if (!result.isEmpty()) {
+            Block.dropStack(cast.world, cast.pos.up(), result);
+        }
+        if (cast.effect != null) {
+            SpellEffectScheduler.INSTANCE.release(cast.effect);
+        }
+    }
+
+    private static @Nullable ItemStack getBook(ServerWorld world, BlockPos pos) {
+        if (world.isChunkLoaded(pos) && world.getBlockEntity(pos) instanceof LecternBlockEntity lectern && lectern.getBook().isOf(SpellBookItem.INSTANCE)) {
+            return lectern.getBook();
+        }
+        return null;
+    }
+
+    // each lectern gets its own queue in SpellEffectScheduler, like a player would
+    private static UUID getCasterId(ServerWorld world, BlockPos pos) {
+        return new UUID(world.getRegistryKey().getValue().hashCode(), pos.asLong());
+    }
+
+    public void clear() {
+        this.queue.clear();
+        this.active.clear();
+        this.cooldowns.clear();
+    }
+
+    private record Request(ServerWorld world, BlockPos pos) {
+    }
+
+    private record Cast(ServerWorld world, BlockPos pos, ItemStack book, SpellBookRecipe recipe, SpellBookRecipeInput input, @Nullable SpellEffect effect, long releaseTime) {
+    }
+}
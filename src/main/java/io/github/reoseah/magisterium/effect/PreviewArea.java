@@ -0,0 +1,11 @@
+package io.github.reoseah.magisterium.effect;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.function.Predicate;
+
+// the box to look in, the blocks the spell acts on, and the positions within the box it can reach
+public record PreviewArea(BlockBox box, Predicate<BlockState> filter, Predicate<BlockPos> selector) {
+}
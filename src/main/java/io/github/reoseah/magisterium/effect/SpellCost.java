@@ -0,0 +1,6 @@
+package io.github.reoseah.magisterium.effect;
+
+// Rough cost of a spell effect, estimated before it starts from what's cheap to know.
+public record SpellCost(int sections, int blocksVisited, int blocksChanged) {
+    public static final SpellCost NONE = new SpellCost(0, 0, 0);
+}
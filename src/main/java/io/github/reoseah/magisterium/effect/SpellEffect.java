@@ -0,0 +1,39 @@
+package io.github.reoseah.magisterium.effect;
+
+import io.github.reoseah.magisterium.world.ChangeJournal;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+
+// A resumable piece of spell work, run by SpellEffectScheduler over as many ticks as it needs.
+// Methods taking a budget do roughly that much work and return how much was actually done.
+public interface SpellEffect {
+    ServerWorld getWorld();
+
+    // blocks the effect reads or changes, their chunks are kept loaded while it runs
+    BlockBox getArea();
+
+    // called before the effect is started to decide whether to accept it, must not load chunks or scan the area
+    SpellCost estimateCost();
+
+    // read-only work like finding targets, done while the spell is still being uttered
+    int prepare(int budget);
+
+    boolean isPrepared();
+
+    // called once the utterance is finished, after this preparing shouldn't wait for chunks to load anymore
+    void release();
+
+    boolean isReleased();
+
+    // changes the world, only called once the utterance is finished and the effect is prepared
+    int apply(int budget);
+
+    boolean isDone();
+
+    // block changes made so far, kept by SpellJournal once the effect is done
+    ChangeJournal getJournal();
+
+    // called once when the effect is done or cancelled, after its journal was kept
+    default void finish() {
+    }
+}
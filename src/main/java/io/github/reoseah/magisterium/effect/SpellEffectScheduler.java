@@ -0,0 +1,171 @@
+package io.github.reoseah.magisterium.effect;
+
+import io.github.reoseah.magisterium.MagisteriumGameRules;
+import io.github.reoseah.magisterium.world.ChunkPrefetch;
+import io.github.reoseah.magisterium.world.SpellJournal;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Runs spell effects across ticks under a shared per-tick budget, split evenly between casters.
+// Effects prepare while the utterance is read and apply once it's finished, within the caster's spellQuotaPerPlayer.
+public class SpellEffectScheduler {
+    public static final SpellEffectScheduler INSTANCE = new SpellEffectScheduler();
+
+    private static final int MAX_BACKLOG_TICKS = 20 * 60;
+
+    private final Map<UUID, Deque<Task>> queues = new LinkedHashMap<>();
+
+    public Admission start(ServerPlayerEntity caster, SpellEffect effect) {
+        return this.start(caster.getUuid(), caster.getGameProfile().getName(), effect);
+    }
+
+    // casters without a player, like lecterns, get an id of their own and share nobody's quota
+    public Admission start(UUID caster, String casterName, SpellEffect effect) {
+        var rules = effect.getWorld().getGameRules();
+        long cost = effect.estimateCost().blocksVisited();
+        var queue = this.queues.get(caster);
+
+        if (getQueuedCost(queue) + cost > rules.getInt(MagisteriumGameRules.SPELL_QUOTA_PER_PLAYER)) {
+            return Admission.OVER_QUOTA;
+        }
+        long backlog = 0;
+        for (var other : this.queues.values()) {
+            backlog += getQueuedCost(other);
+        }
+        if (backlog > 0 && backlog + cost > (long) rules.getInt(MagisteriumGameRules.SPELL_BLOCKS_PER_TICK) * MAX_BACKLOG_TICKS) {
+            return Admission.OVERLOADED;
+        }
+
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            this.queues.put(caster, queue);
+        }
+        queue.add(new Task(effect, casterName, cost));
+        return queue.size() == 1 ? Admission.STARTED : Admission.QUEUED;
+    }
+
+    private static long getQueuedCost(@Nullable Deque<Task> queue) {
+        long cost = 0;
+        if (queue != null) {
+            for (var task : queue) {
+                cost += task.cost;
+            }
+        }
+        return cost;
+    }
+
+    public void release(SpellEffect effect) {
+        for (var queue : this.queues.values()) {
+            for (var task : queue) {
+                if (task.effect == effect) {
+                    effect.release();
+                    return;
+                }
+            }
+        }
+    }
+
+    public void cancel(SpellEffect effect) {
+        var iterator = this.queues.values().iterator();
+        while (iterator.hasNext()) {
+            var queue = iterator.next();
+            var tasks = queue.iterator();
+            while (tasks.hasNext()) {
+                var task = tasks.next();
+                if (task.effect == effect) {
+                    task.prefetch.release();
+                    // keep whatever it already changed, it might have been cancelled halfway through applying
+                    SpellJournal.get(effect.getWorld()).add(effect.getWorld(), task.caster, effect.getJournal());
+                    effect.finish();
+                    tasks.remove();
+                }
+            }
+            if (queue.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public void tick(MinecraftServer server) {
+        int budget = server.getGameRules().getInt(MagisteriumGameRules.SPELL_BLOCKS_PER_TICK);
+
+        while (budget > 0 && !this.queues.isEmpty()) {
+            int share = Math.max(budget / this.queues.size(), 1);
+            int spentThisRound = 0;
+
+            var iterator = this.queues.values().iterator();
+            while (iterator.hasNext() && budget > 0) {
+                var queue = iterator.next();
+                var task = queue.peek();
+
+                int spent = task.run(Math.min(share, budget));
+                spentThisRound += spent;
+                budget -= spent;
+
+                if (task.effect.isDone()) {
+                    task.prefetch.release();
+                    SpellJournal.get(task.effect.getWorld()).add(task.effect.getWorld(), task.caster, task.effect.getJournal());
+                    task.effect.finish();
+                    queue.poll();
+                    if (queue.isEmpty()) {
+                        iterator.remove();
+                    }
+                }
+            }
+            if (spentThisRound == 0) {
+                break;
+            }
+        }
+
+        // rotate so that a different caster gets the first share next tick
+        if (this.queues.size() > 1) {
+            var first = this.queues.keySet().iterator().next();
+            this.queues.put(first, this.queues.remove(first));
+        }
+    }
+
+    public void clear() {
+        // called when the server has stopped, the chunk tickets are gone with the worlds
+        this.queues.clear();
+    }
+
+    private static class Task {
+        private final SpellEffect effect;
+        private final String caster;
+        private final ChunkPrefetch prefetch;
+        private final long cost;
+
+        private Task(SpellEffect effect, String caster, long cost) {
+            this.effect = effect;
+            this.caster = caster;
+            this.cost = cost;
+            this.prefetch = new ChunkPrefetch(effect.getWorld(), effect.getArea());
+        }
+
+        private int run(int budget) {
+            if (!this.effect.isPrepared()) {
+                return this.effect.prepare(budget);
+            }
+            if (this.effect.isReleased()) {
+                return this.effect.apply(budget);
+            }
+            // prepared, waiting for the utterance to finish
+            return 0;
+        }
+    }
+
+    public enum Admission {
+        STARTED, QUEUED, OVER_QUOTA, OVERLOADED;
+
+        public boolean isAccepted() {
+            return this == STARTED || this == QUEUED;
+        }
+    }
+}
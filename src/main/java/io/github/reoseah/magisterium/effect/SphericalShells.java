@@ -0,0 +1,138 @@
+package io.github.reoseah.magisterium.effect;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Offsets within a sphere grouped into shells of equal distance, with the falloff chance computed once per shell.
+public class SphericalShells {
+    private static final Map<Falloff, SphericalShells> CACHE = new ConcurrentHashMap<>();
+
+    public final Falloff falloff;
+    public final int radius;
+    // packed offsets, sorted by distance
+    private final int[] offsets;
+    // index of the first offset of every shell, plus one past the last offset
+    private final int[] shellStarts;
+    private final float[] shellChances;
+    // chance for every offset within the bounding cube, zero outside the sphere
+    private final float[] chances;
+
+    private SphericalShells(Falloff falloff) {
+        this.falloff = falloff;
+        this.radius = falloff.decayFinish;
+
+        int size = 2 * this.radius + 1;
+        int radiusSquared = this.radius * this.radius;
+        var offsets = new int[size * size * size];
+        int count = 0;
+        for (int dx = -this.radius; dx <= this.radius; dx++) {
+            for (int dy = -this.radius; dy <= this.radius; dy++) {
+                for (int dz = -this.radius; dz <= this.radius; dz++) {
+                    if (dx * dx + dy * dy + dz * dz < radiusSquared) {
+                        offsets[count++] = pack(dx, dy, dz);
+                    }
+                }
+            }
+        }
+        IntArrays.stableSort(offsets, 0, count, (a, b) -> Integer.compare(squaredLength(a), squaredLength(b)));
+        this.offsets = Arrays.copyOf(offsets, count);
+
+        int shells = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || squaredLength(this.offsets[i]) != squaredLength(this.offsets[i - 1])) {
+                shells++;
+            }
+        }
+        this.shellStarts = new int[shells + 1];
+        this.shellChances = new float[shells];
+        this.chances = new float[size * size * size];
+        for (int i = 0, shell = -1; i < count; i++) {
+            int offset = this.offsets[i];
+            if (i == 0 || squaredLength(offset) != squaredLength(this.offsets[i - 1])) {
+                shell++;
+                this.shellStarts[shell] = i;
+                this.shellChances[shell] = (float) falloff.getChance(Math.sqrt(squaredLength(offset)));
+            }
+            this.chances[this.index(unpackX(offset), unpackY(offset), unpackZ(offset))] = this.shellChances[shell];
+        }
+        this.shellStarts[shells] = count;
+    }
+
+    public static SphericalShells of(Falloff falloff) {
+        return CACHE.computeIfAbsent(falloff, SphericalShells::new);
+    }
+
+    public float getChance(int dx, int dy, int dz) {
+        if (Math.abs(dx) > this.radius || Math.abs(dy) > this.radius || Math.abs(dz) > this.radius) {
+            return 0;
+        }
+        return this.chances[this.index(dx, dy, dz)];
+    }
+
+    public int getShellCount() {
+        return this.shellChances.length;
+    }
+
+    public int getShellStart(int shell) {
+        return this.shellStarts[shell];
+    }
+
+    public int getShellEnd(int shell) {
+        return this.shellStarts[shell + 1];
+    }
+
+    public float getShellChance(int shell) {
+        return this.shellChances[shell];
+    }
+
+    public int getOffset(int index) {
+        return this.offsets[index];
+    }
+
+    private int index(int dx, int dy, int dz) {
+        int size = 2 * this.radius + 1;
+        return ((dx + this.radius) * size + (dy + this.radius)) * size + (dz + this.radius);
+    }
+
+    // offsets are packed as three signed bytes, enough for radii up to 127
+    public static int pack(int dx, int dy, int dz) {
+        return (dx & 0xFF) << 16 | (dy & 0xFF) << 8 | (dz & 0xFF);
+    }
+
+    public static int unpackX(int packed) {
+        return (byte) (packed >> 16);
+    }
+
+    public static int unpackY(int packed) {
+        return (byte) (packed >> 8);
+    }
+
+    public static int unpackZ(int packed) {
+        return (byte) packed;
+    }
+
+    private static int squaredLength(int packed) {
+        int dx = unpackX(packed), dy = unpackY(packed), dz = unpackZ(packed);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // chance rises from zero to one between the build-up distances, stays at one,
+    // then falls back to zero between the decay distances
+    public record Falloff(int buildUpStart, int buildUpFinish, int decayStart, int decayFinish) {
+        public double getChance(double distance) {
+            if (distance < this.buildUpStart) {
+                return 0;
+            } else if (distance < this.buildUpFinish) {
+                return (distance - this.buildUpStart) / (this.buildUpFinish - this.buildUpStart);
+            } else if (distance < this.decayStart) {
+                return 1;
+            } else if (distance < this.decayFinish) {
+                return 1 - (distance - this.decayStart) / (this.decayFinish - this.decayStart);
+            }
+            return 0;
+        }
+    }
+}
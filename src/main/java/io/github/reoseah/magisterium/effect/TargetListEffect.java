@@ -0,0 +1,134 @@
+package io.github.reoseah.magisterium.effect;
+
+import io.github.reoseah.magisterium.network.SpellChangesPayload;
+import io.github.reoseah.magisterium.world.BlockChangeBatch;
+import io.github.reoseah.magisterium.world.BuildPermissions;
+import io.github.reoseah.magisterium.world.ChangeJournal;
+import io.github.reoseah.magisterium.world.ChangeReplication;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Predicate;
+
+// Applies an action to positions collected in advance, e.g. from an index, writing the changes as one batch per apply call.
+public class TargetListEffect implements SpellEffect {
+    protected final ServerWorld world;
+    protected final BlockBox area;
+    // null when there is no caster to check, everything is allowed then
+    protected final @Nullable BuildPermissions permissions;
+    protected final LongList targets;
+    protected final Predicate<BlockState> filter;
+    protected final Action action;
+    protected final ChangeJournal journal = new ChangeJournal();
+    protected final BlockChangeBatch changes;
+    private final BlockPos.Mutable pos = new BlockPos.Mutable();
+    private int next;
+    private boolean released;
+    private @Nullable Identifier replicatedSpell;
+    private @Nullable SpellChangesPayload.Area replicatedArea;
+
+    public TargetListEffect(ServerWorld world, BlockBox area, @Nullable BuildPermissions permissions, LongList targets, Predicate<BlockState> filter, Action action) {
+        this.world = world;
+        this.area = area;
+        this.permissions = permissions;
+        this.targets = targets;
+        this.filter = filter;
+        this.action = action;
+        this.changes = new BlockChangeBatch(world, permissions, this.journal);
+    }
+
+    // the area has to hold every position the effect may change, outside of it changes are sent as usual
+    public void replicate(Identifier spell, SpellChangesPayload.Area area) {
+        this.replicatedSpell = spell;
+        this.replicatedArea = area;
+        this.changes.setReplicated(true);
+    }
+
+    protected boolean canModifyChunk(int chunkX, int chunkZ) {
+        return this.permissions == null || this.permissions.canModifyChunk(chunkX, chunkZ);
+    }
+
+    @Override
+    public ServerWorld getWorld() {
+        return this.world;
+    }
+
+    @Override
+    public BlockBox getArea() {
+        return this.area;
+    }
+
+    @Override
+    public ChangeJournal getJournal() {
+        return this.journal;
+    }
+
+    @Override
+    public SpellCost estimateCost() {
+        return new SpellCost(0, this.targets.size(), this.targets.size());
+    }
+
+    @Override
+    public int prepare(int budget) {
+        return 0;
+    }
+
+    @Override
+    public boolean isPrepared() {
+        return true;
+    }
+
+    @Override
+    public void release() {
+        this.released = true;
+    }
+
+    @Override
+    public boolean isReleased() {
+        return this.released;
+    }
+
+    @Override
+    public int apply(int budget) {
+        if (this.permissions != null) {
+            this.permissions.reportForbidden();
+        }
+        int spent = 0;
+        while (spent < budget && this.next < this.targets.size()) {
+            this.pos.set(this.targets.getLong(this.next++));
+            spent++;
+            if (!this.world.getChunkManager().isChunkLoaded(ChunkSectionPos.getSectionCoord(this.pos.getX()), ChunkSectionPos.getSectionCoord(this.pos.getZ()))) {
+                continue;
+            }
+            BlockState state = this.world.getBlockState(this.pos);
+            if (this.filter.test(state)) {
+                this.action.apply(this.pos, state, this.changes);
+            }
+        }
+        this.changes.apply();
+        return spent;
+    }
+
+    @Override
+    public boolean isDone() {
+        return this.isPrepared() && this.next >= this.targets.size();
+    }
+
+    @Override
+    public void finish() {
+        if (this.replicatedSpell != null && this.replicatedArea != null) {
+            ChangeReplication.send(this.world, this.replicatedSpell, this.replicatedArea, this.journal);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void apply(BlockPos pos, BlockState state, BlockChangeBatch changes);
+    }
+}
@@ -16,6 +16,7 @@ import net.minecraft.util.dynamic.Codecs;
 import net.minecraft.world.World;
 
 import java.util.List;
+import java.util.UUID;
 
 public class SpellBookItem extends Item {
     public static final ComponentType<Integer> CURRENT_PAGE = ComponentType.<Integer>builder() //
@@ -27,6 +28,19 @@ public class SpellBookItem extends Item {
             .packetCodec(ItemStack.OPTIONAL_PACKET_CODEC.collect(PacketCodecs.toList())) //
             .build();
 
+    // utterances on the fold the book was last open at, reported by the client, which lays out the pages,
+    // so that a lectern can cast them without anyone reading
+    public static final ComponentType<List<Identifier>> FOLD_UTTERANCES = ComponentType.<List<Identifier>>builder() //
+            .codec(Identifier.CODEC.listOf()) //
+            .packetCodec(Identifier.PACKET_CODEC.collect(PacketCodecs.toList())) //
+            .build();
+
+    // player who put the book on a lectern, redstone casts from it are allowed to change what they could
+    public static final ComponentType<UUID> LECTERN_OWNER = ComponentType.<UUID>builder() //
+            .codec(Uuids.INT_STREAM_CODEC) //
+            .packetCodec(Uuids.PACKET_CODEC) //
+            .build();
+
     public static final Item INSTANCE = new SpellBookItem(new Item.Settings().maxCount(1).rarity(Rarity.RARE).component(CURRENT_PAGE, 0));
 
     protected SpellBookItem(Settings settings) {
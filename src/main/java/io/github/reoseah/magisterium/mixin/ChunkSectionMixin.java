@@ -0,0 +1,43 @@
+package io.github.reoseah.magisterium.mixin;
+
+import io.github.reoseah.magisterium.world.SectionTargetCache;
+import io.github.reoseah.magisterium.world.TrackedSection;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectArrayMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.world.chunk.ChunkSection;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(ChunkSection.class)
+public class ChunkSectionMixin implements TrackedSection {
+    @Unique
+    private int modCount;
+    @Unique
+    private @Nullable Reference2ObjectMap<SectionTargetCache, SectionTargetCache.Entry> targetCaches;
+
+    @Inject(at = @At("RETURN"), method = "setBlockState(IIILnet/minecraft/block/BlockState;Z)Lnet/minecraft/block/BlockState;")
+    private void setBlockState(int x, int y, int z, BlockState state, boolean lock, CallbackInfoReturnable<BlockState> ci) {
+        if (ci.getReturnValue() != state) {
+            this.modCount++;
+        }
+    }
+
+    @Override
+    public int magisterium$getModCount() {
+        return this.modCount;
+    }
+
+    @Override
+    public Reference2ObjectMap<SectionTargetCache, SectionTargetCache.Entry> magisterium$getTargetCaches() {
+        if (this.targetCaches == null) {
+            // there's one cache per kind of spell, so only a few entries at most
+            this.targetCaches = new Reference2ObjectArrayMap<>(1);
+        }
+        return this.targetCaches;
+    }
+}
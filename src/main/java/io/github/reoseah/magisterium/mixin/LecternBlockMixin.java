@@ -1,6 +1,7 @@
 package io.github.reoseah.magisterium.mixin;
 
 import io.github.reoseah.magisterium.block.MagisteriumProperties;
+import io.github.reoseah.magisterium.effect.LecternCasts;
 import io.github.reoseah.magisterium.item.SpellBookItem;
 import net.minecraft.block.AbstractBlock;
 import net.minecraft.block.Block;
@@ -8,8 +9,11 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.LecternBlock;
 import net.minecraft.block.entity.LecternBlockEntity;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.state.StateManager;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.state.property.BooleanProperty;
+import net.minecraft.state.property.Properties;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import org.spongepowered.asm.mixin.Mixin;
@@ -22,6 +26,8 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 public class LecternBlockMixin extends Block {
     @Unique
     private static final BooleanProperty HOLDS_SPELL_BOOK = MagisteriumProperties.HOLDS_SPELL_BOOK;
+    @Unique
+    private static final BooleanProperty TRIGGERED = Properties.TRIGGERED;
 
     public LecternBlockMixin(Settings settings) {
         super(settings);
@@ -29,12 +35,24 @@ public class LecternBlockMixin extends Block {
 
     @Inject(at = @At("RETURN"), method = "<init>")
     protected void init(AbstractBlock.Settings settings, CallbackInfo ci) {
-        this.setDefaultState(this.getDefaultState().with(HOLDS_SPELL_BOOK, false));
+        this.setDefaultState(this.getDefaultState().with(HOLDS_SPELL_BOOK, false).with(TRIGGERED, false));
     }
 
     @Inject(at = @At("HEAD"), method = "appendProperties")
     protected void appendProperties(StateManager.Builder<Block, BlockState> builder, CallbackInfo ci) {
-        builder.add(HOLDS_SPELL_BOOK);
+        builder.add(HOLDS_SPELL_BOOK, TRIGGERED);
+    }
+
+    @Override
+    protected void neighborUpdate(BlockState state, World world, BlockPos pos, Block sourceBlock, BlockPos sourcePos, boolean notify) {
+        super.neighborUpdate(state, world, pos, sourceBlock, sourcePos, notify);
+        boolean powered = world.isReceivingRedstonePower(pos);
+        if (world instanceof ServerWorld serverWorld && powered != state.get(TRIGGERED)) {
+            world.setBlockState(pos, state.with(TRIGGERED, powered), Block.NOTIFY_LISTENERS);
+            if (powered && state.get(HOLDS_SPELL_BOOK)) {
+                LecternCasts.INSTANCE.enqueue(serverWorld, pos, world.getReceivedRedstonePower(pos));
+            }
+        }
     }
 
     @Inject(at = @At("RETURN"), method = "setHasBook")
@@ -42,6 +60,14 @@ public class LecternBlockMixin extends Block {
         if (world.getBlockEntity(pos) instanceof LecternBlockEntity be) {
             world.setBlockState(pos, world.getBlockState(pos) //
                     .with(HOLDS_SPELL_BOOK, be.getBook().isOf(SpellBookItem.INSTANCE)));
+            if (hasBook && be.getBook().isOf(SpellBookItem.INSTANCE)) {
+                if (user instanceof PlayerEntity player) {
+                    be.getBook().set(SpellBookItem.LECTERN_OWNER, player.getUuid());
+                } else {
+                    be.getBook().remove(SpellBookItem.LECTERN_OWNER);
+                }
+                be.markDirty();
+            }
         }
     }
 }
\ No newline at end of file
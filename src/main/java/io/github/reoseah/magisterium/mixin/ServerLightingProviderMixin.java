@@ -0,0 +1,66 @@
+package io.github.reoseah.magisterium.mixin;
+
+import io.github.reoseah.magisterium.world.DeferredLighting;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.server.world.ServerLightingProvider;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.ChunkProvider;
+import net.minecraft.world.chunk.light.LightingProvider;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerLightingProvider.class)
+public abstract class ServerLightingProviderMixin extends LightingProvider implements DeferredLighting {
+    @Unique
+    private final Long2ObjectLinkedOpenHashMap<LongList> deferredChecks = new Long2ObjectLinkedOpenHashMap<>();
+    @Unique
+    private int deferDepth;
+
+    public ServerLightingProviderMixin(ChunkProvider chunkProvider, boolean hasBlockLight, boolean hasSkyLight) {
+        super(chunkProvider, hasBlockLight, hasSkyLight);
+    }
+
+    @Shadow
+    private void enqueue(int x, int z, ServerLightingProvider.Stage stage, Runnable task) {
+    }
+
+    @Inject(at = @At("HEAD"), cancellable = true, method = "checkBlock")
+    private void checkBlock(BlockPos pos, CallbackInfo ci) {
+        if (this.deferDepth > 0) {
+            this.deferredChecks.computeIfAbsent(ChunkSectionPos.fromBlockPos(pos.asLong()), key -> new LongArrayList()).add(pos.asLong());
+            ci.cancel();
+        }
+    }
+
+    @Override
+    public void magisterium$deferChecks() {
+        this.deferDepth++;
+    }
+
+    @Override
+    public void magisterium$flushChecks() {
+        if (--this.deferDepth > 0) {
+            return;
+        }
+        for (var entry : this.deferredChecks.long2ObjectEntrySet()) {
+            var positions = entry.getValue();
+            this.enqueue(ChunkSectionPos.unpackX(entry.getLongKey()), ChunkSectionPos.unpackZ(entry.getLongKey()), ServerLightingProvider.Stage.PRE_UPDATE, () -> this.magisterium$checkBlocks(positions));
+        }
+        this.deferredChecks.clear();
+    }
+
+    @Unique
+    private void magisterium$checkBlocks(LongList positions) {
+        var pos = new BlockPos.Mutable();
+        for (int i = 0; i < positions.size(); i++) {
+            super.checkBlock(pos.set(positions.getLong(i)));
+        }
+    }
+}
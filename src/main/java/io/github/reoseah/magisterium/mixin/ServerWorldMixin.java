@@ -0,0 +1,20 @@
+package io.github.reoseah.magisterium.mixin;
+
+import io.github.reoseah.magisterium.world.SpellJournal;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ProgressListener;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerWorld.class)
+public class ServerWorldMixin {
+    @Inject(at = @At("HEAD"), method = "save")
+    private void save(@Nullable ProgressListener progressListener, boolean flush, boolean savingDisabled, CallbackInfo ci) {
+        if (!savingDisabled) {
+            SpellJournal.save((ServerWorld) (Object) this, flush);
+        }
+    }
+}
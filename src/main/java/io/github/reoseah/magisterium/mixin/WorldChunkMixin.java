@@ -0,0 +1,27 @@
+package io.github.reoseah.magisterium.mixin;
+
+import io.github.reoseah.magisterium.world.BlockIndex;
+import io.github.reoseah.magisterium.world.GlyphStructures;
+import io.github.reoseah.magisterium.world.SpellFires;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.chunk.WorldChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(WorldChunk.class)
+public class WorldChunkMixin {
+    @Inject(at = @At("RETURN"), method = "setBlockState")
+    private void setBlockState(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> ci) {
+        var previous = ci.getReturnValue();
+        var chunk = (WorldChunk) (Object) this;
+        if (previous != null && !chunk.getWorld().isClient) {
+            BlockIndex.GLYPHS.onStateChanged(chunk, pos, previous, state);
+            GlyphStructures.onStateChanged(chunk, pos, previous, state);
+            BlockIndex.FLAME_TARGETS.onStateChanged(chunk, pos, previous, state);
+            SpellFires.onStateChanged(chunk.getWorld(), pos, previous, state);
+        }
+    }
+}
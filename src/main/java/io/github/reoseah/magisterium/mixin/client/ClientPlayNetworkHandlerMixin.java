@@ -0,0 +1,27 @@
+package io.github.reoseah.magisterium.mixin.client;
+
+import io.github.reoseah.magisterium.world.DeferredLighting;
+import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.client.world.ClientWorld;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ClientPlayNetworkHandler.class)
+public class ClientPlayNetworkHandlerMixin {
+    @Shadow
+    private ClientWorld world;
+
+    // after the handler has moved itself to the main thread
+    @Inject(at = @At(value = "INVOKE", target = "Lnet/minecraft/network/NetworkThreadUtils;forceMainThread(Lnet/minecraft/network/packet/Packet;Lnet/minecraft/network/listener/PacketListener;Lnet/minecraft/util/thread/ThreadExecutor;)V", shift = At.Shift.AFTER), method = "onChunkDeltaUpdate")
+    private void deferLightChecks(CallbackInfo ci) {
+        ((DeferredLighting) this.world.getLightingProvider()).magisterium$deferChecks();
+    }
+
+    @Inject(at = @At("RETURN"), method = "onChunkDeltaUpdate")
+    private void flushLightChecks(CallbackInfo ci) {
+        ((DeferredLighting) this.world.getLightingProvider()).magisterium$flushChecks();
+    }
+}
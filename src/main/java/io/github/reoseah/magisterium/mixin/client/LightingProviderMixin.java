@@ -0,0 +1,60 @@
+package io.github.reoseah.magisterium.mixin.client;
+
+import io.github.reoseah.magisterium.client.DeferredClientLighting;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.light.LightingProvider;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+// ServerLightingProvider has its own implementation in ServerLightingProviderMixin
+@Mixin(LightingProvider.class)
+public abstract class LightingProviderMixin implements DeferredClientLighting {
+    @Unique
+    private final Long2ObjectLinkedOpenHashMap<LongList> deferredChecks = new Long2ObjectLinkedOpenHashMap<>();
+    @Unique
+    private int deferDepth;
+
+    @Shadow
+    public abstract void checkBlock(BlockPos pos);
+
+    @Inject(at = @At("HEAD"), cancellable = true, method = "checkBlock")
+    private void checkBlock(BlockPos pos, CallbackInfo ci) {
+        if (this.deferDepth > 0) {
+            this.deferredChecks.computeIfAbsent(ChunkSectionPos.fromBlockPos(pos.asLong()), key -> new LongArrayList()).add(pos.asLong());
+            ci.cancel();
+        }
+    }
+
+    @Override
+    public void magisterium$deferChecks() {
+        this.deferDepth++;
+    }
+
+    // the checks stay queued until the next ticks
+    @Override
+    public void magisterium$flushChecks() {
+        this.deferDepth--;
+    }
+
+    @Override
+    public void magisterium$runDeferredChecks(int maxSections) {
+        if (this.deferDepth > 0) {
+            return;
+        }
+        var pos = new BlockPos.Mutable();
+        for (int i = 0; i < maxSections && !this.deferredChecks.isEmpty(); i++) {
+            var positions = this.deferredChecks.removeFirst();
+            for (int j = 0; j < positions.size(); j++) {
+                this.checkBlock(pos.set(positions.getLong(j)));
+            }
+        }
+    }
+}
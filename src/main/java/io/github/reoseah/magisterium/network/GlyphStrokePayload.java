@@ -0,0 +1,62 @@
+package io.github.reoseah.magisterium.network;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Hand;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+// A path of glyphs painted in one go, sent when the use button is released.
+// Consecutive positions touch, so after the first each one is a single byte encoding the step from the previous.
+public record GlyphStrokePayload(Hand hand, BlockPos start, byte[] steps) implements CustomPayload {
+    public static final int MAX_LENGTH = 512;
+
+    public static final CustomPayload.Id<GlyphStrokePayload> ID = new CustomPayload.Id<>(Identifier.of("magisterium:glyph_stroke"));
+    public static final PacketCodec<PacketByteBuf, GlyphStrokePayload> CODEC = CustomPayload.codecOf(GlyphStrokePayload::write, GlyphStrokePayload::new);
+
+    public GlyphStrokePayload(PacketByteBuf buf) {
+        this(buf.readEnumConstant(Hand.class), buf.readBlockPos(), buf.readByteArray(MAX_LENGTH - 1));
+    }
+
+    // positions are expected to touch, see GlyphStroke
+    public static GlyphStrokePayload of(Hand hand, LongList positions) {
+        var steps = new byte[positions.size() - 1];
+        for (int i = 1; i < positions.size(); i++) {
+            long previous = positions.getLong(i - 1), current = positions.getLong(i);
+            int dx = BlockPos.unpackLongX(current) - BlockPos.unpackLongX(previous);
+            int dy = BlockPos.unpackLongY(current) - BlockPos.unpackLongY(previous);
+            int dz = BlockPos.unpackLongZ(current) - BlockPos.unpackLongZ(previous);
+            steps[i - 1] = (byte) ((dx + 1) * 9 + (dy + 1) * 3 + dz + 1);
+        }
+        return new GlyphStrokePayload(hand, BlockPos.fromLong(positions.getLong(0)), steps);
+    }
+
+    public LongList positions() {
+        var positions = new LongArrayList(this.steps.length + 1);
+        var pos = this.start.mutableCopy();
+        positions.add(pos.asLong());
+        for (byte step : this.steps) {
+            // anything out of range is a malformed packet, the rest of the stroke is dropped
+            if (step < 0 || step >= 27) {
+                break;
+            }
+            pos.move(step / 9 - 1, step / 3 % 3 - 1, step % 3 - 1);
+            positions.add(pos.asLong());
+        }
+        return positions;
+    }
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    private void write(PacketByteBuf buf) {
+        buf.writeEnumConstant(this.hand);
+        buf.writeBlockPos(this.start);
+        buf.writeByteArray(this.steps);
+    }
+}
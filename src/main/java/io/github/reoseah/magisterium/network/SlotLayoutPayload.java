@@ -2,12 +2,20 @@ package io.github.reoseah.magisterium.network;
 
 
 import io.github.reoseah.magisterium.spellbook.element.SlotProperties;
+import io.netty.handler.codec.DecoderException;
+import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.util.Identifier;
 
-public record SlotLayoutPayload(SlotProperties[] layout) implements CustomPayload {
+import java.util.ArrayList;
+import java.util.List;
+
+// the slots of the open fold, and the utterances on it for lecterns to cast, see LecternCasts
+public record SlotLayoutPayload(SlotProperties[] layout, List<Identifier> utterances) implements CustomPayload {
+    private static final int MAX_UTTERANCES = 16;
+
     public static final CustomPayload.Id<SlotLayoutPayload> ID = new CustomPayload.Id<>(Identifier.of("magisterium:sync_slot_layout"));
     public static final PacketCodec<RegistryByteBuf, SlotLayoutPayload> CODEC = CustomPayload.codecOf(SlotLayoutPayload::write, SlotLayoutPayload::read);
 
@@ -16,6 +24,7 @@ public record SlotLayoutPayload(SlotProperties[] layout) implements CustomPayloa
         for (SlotProperties configuration : this.layout) {
             configuration.write(buf);
         }
+        buf.writeCollection(this.utterances, PacketByteBuf::writeIdentifier);
     }
 
     public static SlotLayoutPayload read(RegistryByteBuf buf) {
@@ -23,7 +32,15 @@ public record SlotLayoutPayload(SlotProperties[] layout) implements CustomPayloa
         for (int i = 0; i < layout.length; i++) {
             layout[i] = SlotProperties.read(buf);
         }
-        return new SlotLayoutPayload(layout);
+        int count = buf.readVarInt();
+        if (count > MAX_UTTERANCES) {
+            throw new DecoderException("Too many utterances on a fold: " + count);
+        }
+        var utterances = new ArrayList<Identifier>(count);
+        for (int i = 0; i < count; i++) {
+            utterances.add(buf.readIdentifier());
+        }
+        return new SlotLayoutPayload(layout, utterances);
     }
 
     @Override
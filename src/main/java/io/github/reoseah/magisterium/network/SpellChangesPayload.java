@@ -0,0 +1,52 @@
+package io.github.reoseah.magisterium.network;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+
+// In the listed sections, every position in the area holding one of the `from` states becomes the matching `to` state.
+public record SpellChangesPayload(Identifier spell, Area area, long[] sections, int[] from, int[] to) implements CustomPayload {
+    public static final int MAX_SECTIONS = 256;
+    public static final int MAX_REMAPS = 4096;
+
+    public static final CustomPayload.Id<SpellChangesPayload> ID = new CustomPayload.Id<>(Identifier.of("magisterium:spell_changes"));
+    public static final PacketCodec<PacketByteBuf, SpellChangesPayload> CODEC = CustomPayload.codecOf(SpellChangesPayload::write, SpellChangesPayload::new);
+
+    public SpellChangesPayload(PacketByteBuf buf) {
+        this(Identifier.PACKET_CODEC.decode(buf), new Area(buf.readBlockPos(), buf.readVarInt(), buf.readBoolean()), //
+                buf.readLongArray(null, MAX_SECTIONS), buf.readIntArray(MAX_REMAPS), buf.readIntArray(MAX_REMAPS));
+    }
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    private void write(PacketByteBuf buf) {
+        Identifier.PACKET_CODEC.encode(buf, this.spell);
+        buf.writeBlockPos(this.area.center);
+        buf.writeVarInt(this.area.radius);
+        buf.writeBoolean(this.area.sphere);
+        buf.writeLongArray(this.sections);
+        buf.writeIntArray(this.from);
+        buf.writeIntArray(this.to);
+    }
+
+    // a cube or a sphere around the center, the same on both sides
+    public record Area(BlockPos center, int radius, boolean sphere) {
+        public BlockBox getBox() {
+            return BlockBox.create(this.center.add(-this.radius, -this.radius, -this.radius), this.center.add(this.radius, this.radius, this.radius));
+        }
+
+        public boolean contains(int x, int y, int z) {
+            int dx = x - this.center.getX(), dy = y - this.center.getY(), dz = z - this.center.getZ();
+            if (Math.max(Math.abs(dx), Math.max(Math.abs(dy), Math.abs(dz))) > this.radius) {
+                return false;
+            }
+            return !this.sphere || dx * dx + dy * dy + dz * dz <= this.radius * this.radius;
+        }
+    }
+}
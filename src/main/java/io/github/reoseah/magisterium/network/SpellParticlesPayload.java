@@ -0,0 +1,34 @@
+package io.github.reoseah.magisterium.network;
+
+import io.github.reoseah.magisterium.effect.SphericalShells;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+
+// Describes the particles and sounds of a spell instead of sending them one by one,
+// clients generate them from the seed, see SpellParticles.
+public record SpellParticlesPayload(Identifier spell, BlockPos center, SphericalShells.Falloff falloff, long seed) implements CustomPayload {
+    public static final CustomPayload.Id<SpellParticlesPayload> ID = new CustomPayload.Id<>(Identifier.of("magisterium:spell_particles"));
+    public static final PacketCodec<PacketByteBuf, SpellParticlesPayload> CODEC = CustomPayload.codecOf(SpellParticlesPayload::write, SpellParticlesPayload::new);
+
+    public SpellParticlesPayload(PacketByteBuf buf) {
+        this(Identifier.PACKET_CODEC.decode(buf), buf.readBlockPos(), new SphericalShells.Falloff(buf.readVarInt(), buf.readVarInt(), buf.readVarInt(), buf.readVarInt()), buf.readLong());
+    }
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    private void write(PacketByteBuf buf) {
+        Identifier.PACKET_CODEC.encode(buf, this.spell);
+        buf.writeBlockPos(this.center);
+        buf.writeVarInt(this.falloff.buildUpStart());
+        buf.writeVarInt(this.falloff.buildUpFinish());
+        buf.writeVarInt(this.falloff.decayStart());
+        buf.writeVarInt(this.falloff.decayFinish());
+        buf.writeLong(this.seed);
+    }
+}
@@ -0,0 +1,330 @@
+package io.github.reoseah.magisterium.recipe;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.MapCodec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import io.github.reoseah.magisterium.MagisteriumGameRules;
+import io.github.reoseah.magisterium.effect.AreaEffect;
+import io.github.reoseah.magisterium.effect.GlyphNetworkEffect;
+import io.github.reoseah.magisterium.effect.IndexEffect;
+import io.github.reoseah.magisterium.effect.PreviewArea;
+import io.github.reoseah.magisterium.effect.SpellEffect;
+import io.github.reoseah.magisterium.effect.TargetListEffect;
+import io.github.reoseah.magisterium.network.SpellChangesPayload;
+import io.github.reoseah.magisterium.world.BlockIndex;
+import io.github.reoseah.magisterium.world.BuildPermissions;
+import io.github.reoseah.magisterium.world.GlyphPattern;
+import io.github.reoseah.magisterium.world.GlyphStructures;
+import io.github.reoseah.magisterium.world.SectionTargetCache;
+import io.github.reoseah.magisterium.world.SpellFires;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.predicate.StatePropertiesPredicate;
+import net.minecraft.recipe.RecipeSerializer;
+import net.minecraft.registry.RegistryCodecs;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.registry.entry.RegistryEntryList;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.state.property.Property;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.StringIdentifiable;
+import net.minecraft.util.dynamic.Codecs;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+// A spell that changes blocks around the caster, defined in data: targets come from the listed sources,
+// and each target gets the first rule matching it.
+public class BlockTransformRecipe extends SpellBookRecipe {
+    public static final MapCodec<BlockTransformRecipe> CODEC = RecordCodecBuilder.mapCodec(instance -> instance //
+            .group(Identifier.CODEC.fieldOf("utterance").forGetter(recipe -> recipe.utterance), //
+                    Codecs.POSITIVE_INT.fieldOf("duration").forGetter(recipe -> recipe.duration), //
+                    Codec.intRange(1, 64).fieldOf("radius").forGetter(recipe -> recipe.radius), //
+                    Shape.CODEC.optionalFieldOf("shape", Shape.CUBE).forGetter(recipe -> recipe.shape), //
+                    Source.CODEC.listOf().validate(BlockTransformRecipe::validateSources).fieldOf("sources").forGetter(recipe -> recipe.sources), //
+                    Rule.CODEC.listOf().fieldOf("rules").forGetter(recipe -> recipe.rules), //
+                    GlyphPattern.CODEC.optionalFieldOf("circle").forGetter(recipe -> recipe.circle)) //
+            .apply(instance, BlockTransformRecipe::new));
+    // effects are created on the server, the client only needs what has to match its spell data
+    // and what it takes to preview the affected blocks
+    public static final PacketCodec<RegistryByteBuf, BlockTransformRecipe> PACKET_CODEC = PacketCodec.tuple( //
+            Identifier.PACKET_CODEC, recipe -> recipe.utterance, //
+            PacketCodecs.VAR_INT, recipe -> recipe.duration, //
+            PacketCodecs.VAR_INT, recipe -> recipe.radius, //
+            PacketCodecs.indexed(index -> Shape.values()[index], Shape::ordinal), recipe -> recipe.shape, //
+            PacketCodecs.registryCodec(Rule.CODEC).collect(PacketCodecs.toList()), recipe -> recipe.rules, //
+            (utterance, duration, radius, shape, rules) -> new BlockTransformRecipe(utterance, duration, radius, shape, List.of(), rules, Optional.empty()));
+    public static final RecipeSerializer<BlockTransformRecipe> SERIALIZER = new RecipeSerializer<>() {
+        @Override
+        public MapCodec<BlockTransformRecipe> codec() {
+            return CODEC;
+        }
+
+        @Override
+        public PacketCodec<RegistryByteBuf, BlockTransformRecipe> packetCodec() {
+            return PACKET_CODEC;
+        }
+    };
+
+    private static final Map<Identifier, SectionTargetCache> TARGET_CACHES = new HashMap<>();
+
+    public final int radius;
+    public final Shape shape;
+    public final List<Source> sources;
+    public final List<Rule> rules;
+    // a glyph structure the caster has to stand in
+    public final Optional<GlyphPattern> circle;
+    private @Nullable SectionTargetCache targetCache;
+
+    public BlockTransformRecipe(Identifier utterance, int duration, int radius, Shape shape, List<Source> sources, List<Rule> rules, Optional<GlyphPattern> circle) {
+        super(utterance, duration);
+        this.radius = radius;
+        this.shape = shape;
+        this.sources = sources;
+        this.rules = rules;
+        this.circle = circle;
+    }
+
+    private static DataResult<List<Source>> validateSources(List<Source> sources) {
+        if (sources.isEmpty()) {
+            return DataResult.error(() -> "No target sources");
+        }
+        for (var source : List.of(Source.AREA, Source.GLYPH_NETWORK)) {
+            if (sources.contains(source) && sources.size() > 1) {
+                return DataResult.error(() -> "Source " + source.asString() + " can't be combined with other sources: " + sources);
+            }
+        }
+        return DataResult.success(sources);
+    }
+
+    @Override
+    public boolean matches(SpellBookRecipeInput input, World world) {
+        // structures are only tracked on the server
+        return this.circle.isEmpty() || !(world instanceof ServerWorld) || GlyphStructures.isInside(world, input.getPos(), this.circle.get());
+    }
+
+    @Override
+    public ItemStack craft(SpellBookRecipeInput input, RegistryWrapper.WrapperLookup lookup) {
+        return ItemStack.EMPTY;
+    }
+
+    @Override
+    public SpellEffect createEffect(SpellBookRecipeInput input, ServerWorld world) {
+        BlockPos center = input.getPos();
+        BlockBox area = BlockBox.create(center.add(-this.radius, -this.radius, -this.radius), center.add(this.radius, this.radius, this.radius));
+        var permissions = new BuildPermissions(input.getPlayer(), world);
+        var fires = SpellFires.get(world);
+
+        TargetListEffect.Action action = (pos, state, changes) -> {
+            var rule = this.findRule(state);
+            if (rule == null) {
+                return;
+            }
+            var result = rule.apply(state);
+            if (!result.isIn(BlockTags.FIRE)) {
+                changes.set(pos, result);
+            } else if (!state.isIn(BlockTags.FIRE) && !fires.isFull(world) && changes.set(pos, result)) {
+                fires.add(world, pos);
+            }
+        };
+
+        if (this.sources.contains(Source.GLYPH_NETWORK)) {
+            return new GlyphNetworkEffect(world, area, permissions, center, state -> this.findRule(state) != null, action);
+        }
+        TargetListEffect effect;
+        if (this.sources.contains(Source.AREA)) {
+            effect = new AreaEffect(world, area, permissions, this.getTargetCache(), //
+                    (pos, state, random) -> this.shape.contains(center, this.radius, pos.getX(), pos.getY(), pos.getZ()), action);
+        } else {
+            effect = new IndexEffect(world, area, permissions, this.createIndexSource(world, center), state -> this.findRule(state) != null, action);
+        }
+        // the rules map each state to one result, so clients can replay them on their copy of the area
+        if (world.getGameRules().getBoolean(MagisteriumGameRules.REPLICATE_SPELL_CHANGES)) {
+            effect.replicate(this.utterance, new SpellChangesPayload.Area(center, this.radius, this.shape == Shape.SPHERE));
+        }
+        return effect;
+    }
+
+    // kept by utterance across reloads, a new instance of the recipe only swaps the filter,
+    // so the entries left on sections by the old one are replaced rather than piling up
+    private SectionTargetCache getTargetCache() {
+        if (this.targetCache == null) {
+            Predicate<BlockState> filter = state -> this.findRule(state) != null;
+            var cache = TARGET_CACHES.get(this.utterance);
+            if (cache == null) {
+                cache = new SectionTargetCache(filter);
+                TARGET_CACHES.put(this.utterance, cache);
+            } else {
+                cache.setFilter(filter);
+            }
+            this.targetCache = cache;
+        }
+        return this.targetCache;
+    }
+
+    public static void invalidateTargetCaches() {
+        for (var cache : TARGET_CACHES.values()) {
+            cache.invalidate();
+        }
+    }
+
+    private IndexEffect.Source createIndexSource(ServerWorld world, BlockPos center) {
+        return new IndexEffect.Source() {
+            @Override
+            public void forEach(World effectWorld, int chunkX, int chunkZ, BlockBox box, LongConsumer consumer) {
+                LongConsumer inShape = packed -> {
+                    if (BlockTransformRecipe.this.shape.contains(center, BlockTransformRecipe.this.radius, BlockPos.unpackLongX(packed), BlockPos.unpackLongY(packed), BlockPos.unpackLongZ(packed))) {
+                        consumer.accept(packed);
+                    }
+                };
+                for (var indexSource : BlockTransformRecipe.this.sources) {
+                    indexSource.forEach(world, chunkX, chunkZ, box, inShape);
+                }
+            }
+
+            @Override
+            public int estimate(World effectWorld, int chunkX, int chunkZ) {
+                int count = 0;
+                for (var indexSource : BlockTransformRecipe.this.sources) {
+                    count += indexSource.estimate(world, chunkX, chunkZ);
+                }
+                return count;
+            }
+        };
+    }
+
+    @Override
+    public PreviewArea getPreviewArea(BlockPos center) {
+        BlockBox area = BlockBox.create(center.add(-this.radius, -this.radius, -this.radius), center.add(this.radius, this.radius, this.radius));
+        return new PreviewArea(area, state -> this.findRule(state) != null, pos -> this.shape.contains(center, this.radius, pos.getX(), pos.getY(), pos.getZ()));
+    }
+
+    private @Nullable Rule findRule(BlockState state) {
+        for (var rule : this.rules) {
+            if (rule.test(state)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public ItemStack getResult(RegistryWrapper.WrapperLookup registriesLookup) {
+        return ItemStack.EMPTY;
+    }
+
+    @Override
+    public RecipeSerializer<?> getSerializer() {
+        return SERIALIZER;
+    }
+
+    public enum Shape implements StringIdentifiable {
+        CUBE("cube"), SPHERE("sphere");
+
+        public static final Codec<Shape> CODEC = StringIdentifiable.createCodec(Shape::values);
+
+        private final String name;
+
+        Shape(String name) {
+            this.name = name;
+        }
+
+        public boolean contains(BlockPos center, int radius, int x, int y, int z) {
+            if (this == CUBE) {
+                // the area is already the cube
+                return true;
+            }
+            int dx = x - center.getX(), dy = y - center.getY(), dz = z - center.getZ();
+            return dx * dx + dy * dy + dz * dz <= radius * radius;
+        }
+
+        @Override
+        public String asString() {
+            return this.name;
+        }
+    }
+
+    public enum Source implements StringIdentifiable {
+        AREA("area"), GLYPHS("glyphs"), FLAME_TARGETS("flame_targets"), SPELL_FIRES("spell_fires"), GLYPH_NETWORK("glyph_network");
+
+        public static final Codec<Source> CODEC = StringIdentifiable.createCodec(Source::values);
+
+        private final String name;
+
+        Source(String name) {
+            this.name = name;
+        }
+
+        public void forEach(ServerWorld world, int chunkX, int chunkZ, BlockBox box, LongConsumer consumer) {
+            switch (this) {
+                case GLYPHS -> BlockIndex.GLYPHS.forEach(world, chunkX, chunkZ, box, consumer);
+                case FLAME_TARGETS -> BlockIndex.FLAME_TARGETS.forEach(world, chunkX, chunkZ, box, consumer);
+                case SPELL_FIRES -> SpellFires.get(world).forEach(chunkX, chunkZ, box, consumer);
+                // scanned by AreaEffect and walked by GlyphNetworkEffect instead
+                case AREA, GLYPH_NETWORK -> {
+                }
+            }
+        }
+
+        public int estimate(ServerWorld world, int chunkX, int chunkZ) {
+            return switch (this) {
+                case GLYPHS -> BlockIndex.GLYPHS.count(world, chunkX, chunkZ);
+                case FLAME_TARGETS -> BlockIndex.FLAME_TARGETS.count(world, chunkX, chunkZ);
+                case SPELL_FIRES -> SpellFires.get(world).count(chunkX, chunkZ);
+                case AREA, GLYPH_NETWORK -> 0;
+            };
+        }
+
+        @Override
+        public String asString() {
+            return this.name;
+        }
+    }
+
+    // matches blocks by id or tag and by property values,
+    // then replaces the state, sets properties on it, or both
+    public record Rule(Optional<RegistryEntryList<Block>> blocks, Optional<StatePropertiesPredicate> state, //
+                       Optional<BlockState> replaceWith, Map<String, String> setProperties) {
+        public static final Codec<Rule> CODEC = RecordCodecBuilder.create(instance -> instance //
+                .group(RegistryCodecs.entryList(RegistryKeys.BLOCK).optionalFieldOf("blocks").forGetter(Rule::blocks), //
+                        StatePropertiesPredicate.CODEC.optionalFieldOf("state").forGetter(Rule::state), //
+                        BlockState.CODEC.optionalFieldOf("replace_with").forGetter(Rule::replaceWith), //
+                        Codec.unboundedMap(Codec.STRING, Codec.STRING).optionalFieldOf("set_properties", Map.of()).forGetter(Rule::setProperties)) //
+                .apply(instance, Rule::new));
+
+        public boolean test(BlockState state) {
+            return (this.blocks.isEmpty() || state.isIn(this.blocks.get())) //
+                    && (this.state.isEmpty() || this.state.get().test(state));
+        }
+
+        public BlockState apply(BlockState state) {
+            var result = this.replaceWith.orElse(state);
+            for (var entry : this.setProperties.entrySet()) {
+                var property = result.getBlock().getStateManager().getProperty(entry.getKey());
+                if (property != null) {
+                    result = with(result, property, entry.getValue());
+                }
+            }
+            return result;
+        }
+
+        private static <T extends Comparable<T>> BlockState with(BlockState state, Property<T> property, String value) {
+            return property.parse(value).map(parsed -> state.with(property, parsed)).orElse(state);
+        }
+    }
+}
@@ -1,12 +1,23 @@
 package io.github.reoseah.magisterium.recipe;
 
-import net.fabricmc.fabric.api.registry.FlammableBlockRegistry;
+import io.github.reoseah.magisterium.effect.AreaEffect;
+import io.github.reoseah.magisterium.effect.PreviewArea;
+import io.github.reoseah.magisterium.effect.SpellEffect;
+import io.github.reoseah.magisterium.effect.SphericalShells;
+import io.github.reoseah.magisterium.network.SpellParticlesPayload;
+import io.github.reoseah.magisterium.world.BuildPermissions;
+import io.github.reoseah.magisterium.world.Flammability;
+import io.github.reoseah.magisterium.world.SectionTargetCache;
+import io.github.reoseah.magisterium.world.SpellFires;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.block.Blocks;
-import net.minecraft.block.ConnectingBlock;
 import net.minecraft.item.ItemStack;
 import net.minecraft.recipe.RecipeSerializer;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
@@ -14,6 +25,9 @@ import net.minecraft.world.World;
 public class ConflagrateRecipe extends SpellBookRecipe {
     public static final RecipeSerializer<ConflagrateRecipe> SERIALIZER = new SpellBookRecipe.SimpleSerializer<>(ConflagrateRecipe::new);
 
+    public static final SphericalShells.Falloff FALLOFF = new SphericalShells.Falloff(1, 5, 11, 15);
+    public static final double PARTICLES_DISTANCE = 64;
+
     protected ConflagrateRecipe(Identifier utterance, int duration) {
         super(utterance, duration);
     }
@@ -25,73 +39,50 @@ public class ConflagrateRecipe extends SpellBookRecipe {
 
     @Override
     public ItemStack craft(SpellBookRecipeInput input, RegistryWrapper.WrapperLookup lookup) {
-        // TODO check if the player can edit the blocks in the area
-        //      show a message if they can't, stylized to fit the theme
-        //      like "There is a force preventing you from altering the world here."
-
         // TODO consume the items to increase the range
 
-        // TODO make the area circular instead of square
-
-        // TODO spawn a bunch of fire particles in the area
-
-        int buildUpStart = 1, buildUpFinish = 5, decayStart = 11, decayFinish = 15;
-
-        var world = input.player.getWorld();
-        var center = input.player.getBlockPos();
-        for (var pos : BlockPos.iterate(center.add(-decayFinish, -decayFinish, -decayFinish), center.add(decayFinish, decayFinish, decayFinish))) {
-            var state = world.getBlockState(pos);
-            var block = state.getBlock();
-            var entry = FlammableBlockRegistry.getInstance(Blocks.FIRE).get(block);
-
-            double distance = Math.sqrt(center.getSquaredDistance(pos));
-            double chance;
-            if (distance < buildUpStart) {
-                chance = 0;
-            } else if (distance < buildUpFinish) {
-                chance = (distance - buildUpStart) / (buildUpFinish - buildUpStart);
-            } else if (distance < decayStart) {
-                chance = 1;
-            } else if (distance < decayFinish) {
-                chance = 1 - (distance - decayStart) / (decayFinish - decayStart);
-            } else {
-                chance = 0;
+        if (input.getWorld() instanceof ServerWorld world) {
+            // clients generate the particles themselves, instead of getting a packet for each
+            var payload = new SpellParticlesPayload(this.utterance, input.getPos(), FALLOFF, world.random.nextLong());
+            for (var player : PlayerLookup.around(world, input.getPos().toCenterPos(), PARTICLES_DISTANCE)) {
+                ServerPlayNetworking.send(player, payload);
             }
+        }
 
-            if (entry != null && entry.getBurnChance() > 0 && world.random.nextFloat() < chance) {
-                for (var direction : Direction.values()) {
-
-                    var side = pos.offset(direction);
-                    if (world.isAir(side)) {
-                        var below = side.down();
-                        var stateBelow = world.getBlockState(below);
+        return ItemStack.EMPTY;
+    }
 
-                        // TODO: perhaps should make FireBlock#getStateForPosition accessible
-                        if (stateBelow.isSideSolidFullSquare(world, below, Direction.UP)) {
-                            world.setBlockState(side, Blocks.FIRE.getDefaultState());
-                        } else {
-                            var fireState = Blocks.FIRE.getDefaultState();
-                            for (var direction2 : Direction.values()) {
-                                if (direction == Direction.DOWN) {
-                                    continue;
-                                }
-                                var side2 = side.offset(direction2);
-                                var entry2 = FlammableBlockRegistry.getInstance(Blocks.FIRE).get(world.getBlockState(side2).getBlock());
-                                if (entry2 != null && entry2.getBurnChance() > 0) {
-                                    var state2 = world.getBlockState(side2);
-                                    if (state2.isSideSolidFullSquare(world, side2, direction2.getOpposite())) {
-                                        fireState = fireState.with(ConnectingBlock.FACING_PROPERTIES.get(direction2), true);
-                                    }
-                                }
-                            }
-                            world.setBlockState(side, fireState);
-                        }
+    @Override
+    public SpellEffect createEffect(SpellBookRecipeInput input, ServerWorld world) {
+        var shells = SphericalShells.of(FALLOFF);
+        var center = input.getPos();
+        var area = BlockBox.create(center.add(-shells.radius, -shells.radius, -shells.radius), center.add(shells.radius, shells.radius, shells.radius));
+        AreaEffect.Selector selector = (pos, state, random) -> {
+            float chance = shells.getChance(pos.getX() - center.getX(), pos.getY() - center.getY(), pos.getZ() - center.getZ());
+            return chance > 0 && random.nextFloat() < chance;
+        };
+        var fires = SpellFires.get(world);
+        return new AreaEffect(world, area, new BuildPermissions(input.getPlayer(), world), SectionTargetCache.FLAMMABLE, selector, (pos, state, changes) -> {
+            for (var direction : Direction.values()) {
+                var side = pos.offset(direction);
+                if (world.isAir(side) && !fires.isFull(world)) {
+                    var below = side.down();
+                    var fire = world.getBlockState(below).isSideSolidFullSquare(world, below, Direction.UP) //
+                            ? Blocks.FIRE.getDefaultState() //
+                            : Flammability.getHangingFireState(world, side);
+                    if (changes.set(side, fire)) {
+                        fires.add(world, side);
                     }
                 }
             }
-        }
+        });
+    }
 
-        return ItemStack.EMPTY;
+    @Override
+    public PreviewArea getPreviewArea(BlockPos center) {
+        var shells = SphericalShells.of(FALLOFF);
+        var area = BlockBox.create(center.add(-shells.radius, -shells.radius, -shells.radius), center.add(shells.radius, shells.radius, shells.radius));
+        return new PreviewArea(area, Flammability::isFlammable, pos -> shells.getChance(pos.getX() - center.getX(), pos.getY() - center.getY(), pos.getZ() - center.getZ()) > 0);
     }
 
     @Override
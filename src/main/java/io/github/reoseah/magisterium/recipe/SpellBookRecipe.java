@@ -2,13 +2,18 @@ package io.github.reoseah.magisterium.recipe;
 
 import com.mojang.serialization.MapCodec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
+import io.github.reoseah.magisterium.effect.SpellEffect;
+import io.github.reoseah.magisterium.effect.PreviewArea;
 import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.recipe.Recipe;
 import net.minecraft.recipe.RecipeSerializer;
 import net.minecraft.recipe.RecipeType;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.dynamic.Codecs;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.function.BiFunction;
 
@@ -30,6 +35,18 @@ public abstract class SpellBookRecipe implements Recipe<SpellBookRecipeInput> {
         this.duration = duration;
     }
 
+    // area spells hand their work back as an effect, so that it can be spread over several ticks,
+    // it's created when the utterance starts and applied when it's finished
+    public @Nullable SpellEffect createEffect(SpellBookRecipeInput input, ServerWorld world) {
+        return null;
+    }
+
+    // what the client highlights while the spell is uttered around the given position,
+    // only called on the client, so it can only use what the recipe's packet codec sends
+    public @Nullable PreviewArea getPreviewArea(BlockPos center) {
+        return null;
+    }
+
     @Override
     public RecipeType<?> getType() {
         return TYPE;
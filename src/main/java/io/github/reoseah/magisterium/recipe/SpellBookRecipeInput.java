@@ -4,14 +4,27 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.recipe.input.RecipeInput;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
 
 public class SpellBookRecipeInput implements RecipeInput {
     protected final Inventory inventory;
-    protected final PlayerEntity player;
+    // null for casts without a caster, e.g. by a lectern powered with redstone
+    protected final @Nullable PlayerEntity player;
+    protected final World world;
+    // where the spell is centered, the caster's position or the lectern's
+    protected final BlockPos pos;
 
     public SpellBookRecipeInput(Inventory inventory, PlayerEntity player) {
+        this(inventory, player, player.getWorld(), player.getBlockPos());
+    }
+
+    public SpellBookRecipeInput(Inventory inventory, @Nullable PlayerEntity player, World world, BlockPos pos) {
         this.inventory = inventory;
         this.player = player;
+        this.world = world;
+        this.pos = pos;
     }
 
     @Override
@@ -28,7 +41,15 @@ public class SpellBookRecipeInput implements RecipeInput {
         return this.inventory.removeStack(slot, count);
     }
 
-    public PlayerEntity getPlayer() {
+    public @Nullable PlayerEntity getPlayer() {
         return this.player;
     }
+
+    public World getWorld() {
+        return this.world;
+    }
+
+    public BlockPos getPos() {
+        return this.pos;
+    }
 }
@@ -1,5 +1,6 @@
 package io.github.reoseah.magisterium.screen;
 
+import io.github.reoseah.magisterium.client.SpellPreview;
 import io.github.reoseah.magisterium.item.BookmarkItem;
 import io.github.reoseah.magisterium.item.SpellBookItem;
 import io.github.reoseah.magisterium.item.SpellPageItem;
@@ -168,7 +169,7 @@ public class SpellBookScreen extends HandledScreen<SpellBookScreenHandler> {
 
         SlotProperties[] slots = this.layout.getFoldSlots(this.page);
         this.handler.applySlotProperties(slots);
-        ClientPlayNetworking.send(new SlotLayoutPayload(slots));
+        ClientPlayNetworking.send(new SlotLayoutPayload(slots, this.layout.getFoldUtterances(this.page)));
     }
 
     @Override
@@ -185,6 +186,20 @@ public class SpellBookScreen extends HandledScreen<SpellBookScreenHandler> {
         this.drawMouseoverTooltip(context, mouseX, mouseY);
     }
 
+    @Override
+    public void removed() {
+        super.removed();
+        SpellPreview.stop();
+    }
+
+    @Override
+    protected void applyBlur(float delta) {
+        // the highlighted blocks have to stay visible behind the book
+        if (!SpellPreview.isActive()) {
+            super.applyBlur(delta);
+        }
+    }
+
     @Override
     protected void drawBackground(DrawContext context, float delta, int mouseX, int mouseY) {
         context.getMatrices().push();
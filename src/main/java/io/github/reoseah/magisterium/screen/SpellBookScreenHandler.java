@@ -1,6 +1,9 @@
 package io.github.reoseah.magisterium.screen;
 
+import io.github.reoseah.magisterium.effect.SpellEffect;
+import io.github.reoseah.magisterium.effect.SpellEffectScheduler;
 import io.github.reoseah.magisterium.item.SpellBookItem;
+import io.github.reoseah.magisterium.item.SpellPageItem;
 import io.github.reoseah.magisterium.recipe.SpellBookRecipe;
 import io.github.reoseah.magisterium.recipe.SpellBookRecipeInput;
 import io.github.reoseah.magisterium.spellbook.element.SlotProperties;
@@ -21,12 +24,17 @@ import net.minecraft.screen.ScreenHandler;
 import net.minecraft.screen.ScreenHandlerType;
 import net.minecraft.screen.slot.Slot;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
 import net.minecraft.util.Hand;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.HashSet;
+import java.util.List;
+
 public class SpellBookScreenHandler extends ScreenHandler {
     public static final ScreenHandlerType<SpellBookScreenHandler> TYPE = new ScreenHandlerType<>(SpellBookScreenHandler::new, FeatureFlags.DEFAULT_ENABLED_FEATURES);
 
@@ -39,8 +47,10 @@ public class SpellBookScreenHandler extends ScreenHandler {
     public final Inventory inventory = new SpellBookInventory(this);
 
     private long utteranceStart;
+    private BlockPos utterancePos = BlockPos.ORIGIN;
 
     private @Nullable SpellBookRecipe utteranceRecipe;
+    private @Nullable SpellEffect utteranceEffect;
 
     public SpellBookScreenHandler(int syncId, PlayerInventory playerInv) {
         this(syncId, playerInv, new ClientContext());
@@ -76,20 +86,49 @@ public class SpellBookScreenHandler extends ScreenHandler {
     public void startUtterance(Identifier id, ServerPlayerEntity player) {
         this.isUttering.set(1);
         this.utteranceStart = player.getWorld().getTime();
+        this.utterancePos = player.getBlockPos();
+        if (this.utteranceEffect != null) {
+            SpellEffectScheduler.INSTANCE.cancel(this.utteranceEffect);
+            this.utteranceEffect = null;
+        }
 
+        var input = new SpellBookRecipeInput(this.inventory, player);
         player.getWorld().getRecipeManager() //
-                .getAllMatches(SpellBookRecipe.TYPE, new SpellBookRecipeInput(this.inventory, player), player.getWorld()) //
+                .getAllMatches(SpellBookRecipe.TYPE, input, player.getWorld()) //
                 .stream() //
                 .map(RecipeEntry::value) //
                 .filter(recipe -> recipe.utterance.equals(id)) //
                 .findFirst() //
                 .ifPresent(recipe -> this.utteranceRecipe = recipe);
+
+        // let the effect look for its targets while the player is still reading
+        if (this.utteranceRecipe != null) {
+            var effect = this.utteranceRecipe.createEffect(input, player.getServerWorld());
+            if (effect != null) {
+                var admission = SpellEffectScheduler.INSTANCE.start(player, effect);
+                if (!admission.isAccepted()) {
+                    player.sendMessage(getRejectionMessage(admission), true);
+                    this.stopUtterance();
+                    return;
+                }
+                this.utteranceEffect = effect;
+            }
+        }
+    }
+
+    private static Text getRejectionMessage(SpellEffectScheduler.Admission admission) {
+        return Text.translatable(admission == SpellEffectScheduler.Admission.OVER_QUOTA ? "magisterium.gui.spell_quota_exceeded" : "magisterium.gui.spells_overloaded") //
+                .formatted(Formatting.DARK_PURPLE, Formatting.ITALIC);
     }
 
     public void stopUtterance() {
         this.isUttering.set(0);
         this.utteranceStart = 0;
         this.utteranceRecipe = null;
+        if (this.utteranceEffect != null) {
+            SpellEffectScheduler.INSTANCE.cancel(this.utteranceEffect);
+            this.utteranceEffect = null;
+        }
 
         this.sendContentUpdates();
     }
@@ -157,6 +196,10 @@ public class SpellBookScreenHandler extends ScreenHandler {
     @Override
     public void onClosed(PlayerEntity player) {
         super.onClosed(player);
+        if (this.utteranceEffect != null) {
+            SpellEffectScheduler.INSTANCE.cancel(this.utteranceEffect);
+            this.utteranceEffect = null;
+        }
         this.dropInventory(player, this.inventory);
     }
 
@@ -168,11 +211,33 @@ public class SpellBookScreenHandler extends ScreenHandler {
         if (this.utteranceRecipe != null && !player.getWorld().isClient) {
             var recipeDuration = this.utteranceRecipe.duration;
             if (player.getWorld().getTime() - this.utteranceStart >= recipeDuration * player.getWorld().getTickManager().getTickRate()) {
-                ItemStack result = this.utteranceRecipe.craft(new SpellBookRecipeInput(this.inventory, player), player.getWorld().getRegistryManager());
+                var input = new SpellBookRecipeInput(this.inventory, player);
+                ItemStack result = this.utteranceRecipe.craft(input, player.getWorld().getRegistryManager());
 
                 if (!result.isEmpty()) {
                     this.insertResult(result, player);
                 }
+                if (player instanceof ServerPlayerEntity serverPlayer) {
+                    var effect = this.utteranceEffect;
+                    if (!serverPlayer.getBlockPos().equals(this.utterancePos)) {
+                        // the caster was moved while reading, targets found so far are around the wrong spot
+                        if (effect != null) {
+                            SpellEffectScheduler.INSTANCE.cancel(effect);
+                        }
+                        effect = this.utteranceRecipe.createEffect(input, serverPlayer.getServerWorld());
+                        if (effect != null) {
+                            var admission = SpellEffectScheduler.INSTANCE.start(serverPlayer, effect);
+                            if (!admission.isAccepted()) {
+                                serverPlayer.sendMessage(getRejectionMessage(admission), true);
+                                effect = null;
+                            }
+                        }
+                    }
+                    if (effect != null) {
+                        SpellEffectScheduler.INSTANCE.release(effect);
+                    }
+                    this.utteranceEffect = null;
+                }
                 this.stopUtterance();
             }
         }
@@ -249,6 +314,23 @@ public class SpellBookScreenHandler extends ScreenHandler {
         }
     }
 
+    // the fold is laid out on the client, so only spells whose pages are in the book are accepted
+    public void setFoldUtterances(List<Identifier> utterances) {
+        var book = this.context.getStack();
+        if (book.isEmpty()) {
+            return;
+        }
+        var spells = new HashSet<Identifier>();
+        for (var page : book.getOrDefault(SpellBookItem.PAGES, List.of())) {
+            var spell = page.get(SpellPageItem.SPELL);
+            if (spell != null) {
+                spells.add(spell);
+            }
+        }
+        book.set(SpellBookItem.FOLD_UTTERANCES, utterances.stream().filter(spells::contains).distinct().toList());
+        this.context.markDirty();
+    }
+
     public ItemStack getSpellBook() {
         return this.slots.get(16 + 9).getStack();
     }
@@ -267,6 +349,9 @@ public class SpellBookScreenHandler extends ScreenHandler {
         public abstract Property createProperty(ComponentType<Integer> component);
 
         public abstract boolean canUse(PlayerEntity player);
+
+        public void markDirty() {
+        }
     }
 
     public static class ClientContext extends Context {
@@ -306,15 +391,19 @@ public class SpellBookScreenHandler extends ScreenHandler {
                 @Override
                 public void set(int value) {
                     stack.set(component, value);
-
-                    BlockEntity be = world.getBlockEntity(pos);
-                    if (be != null) {
-                        be.markDirty();
-                    }
+                    LecternContext.this.markDirty();
                 }
             };
         }
 
+        @Override
+        public void markDirty() {
+            BlockEntity be = this.world.getBlockEntity(this.pos);
+            if (be != null) {
+                be.markDirty();
+            }
+        }
+
         @Override
         public boolean canUse(PlayerEntity player) {
             return this.world.getBlockState(this.pos).getBlock() instanceof LecternBlock //
@@ -3,10 +3,12 @@ package io.github.reoseah.magisterium.spellbook;
 import io.github.reoseah.magisterium.spellbook.element.Bookmark;
 import io.github.reoseah.magisterium.spellbook.element.SlotProperties;
 import io.github.reoseah.magisterium.spellbook.element.SlotPropertiesProvider;
+import io.github.reoseah.magisterium.spellbook.element.UtteranceProvider;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
 import net.minecraft.client.gui.Drawable;
+import net.minecraft.util.Identifier;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -45,6 +47,13 @@ public record BookLayout(
         return Stream.concat(leftSlots, rightSlots).limit(16).toArray(SlotProperties[]::new);
     }
 
+    public List<Identifier> getFoldUtterances(int leftPage) {
+        return Stream.concat(this.getPage(leftPage).stream(), this.getPage(leftPage + 1).stream())
+                .filter(drawable -> drawable instanceof UtteranceProvider)
+                .map(drawable -> ((UtteranceProvider) drawable).getUtterance())
+                .toList();
+    }
+
     public static class Builder {
         private final int leftX, rightX;
         private final int paddingTop;
@@ -1,6 +1,7 @@
 package io.github.reoseah.magisterium.spellbook.element;
 
 
+import io.github.reoseah.magisterium.client.SpellPreview;
 import io.github.reoseah.magisterium.network.StartUtterancePayload;
 import io.github.reoseah.magisterium.network.StopUtterancePayload;
 import io.github.reoseah.magisterium.screen.SpellBookScreenHandler;
@@ -67,7 +68,7 @@ public class Utterance extends SimpleBlock {
         return new UtteranceWidget(this.translationKey, x, y, properties, properties.pageWidth, textRenderer);
     }
 
-    private class UtteranceWidget implements Drawable, Element {
+    private class UtteranceWidget implements Drawable, Element, UtteranceProvider {
         private final int buttonX;
         private final int buttonY;
 
@@ -134,6 +135,7 @@ public class Utterance extends SimpleBlock {
                 if (this.handler.isUttering.get() == 0) {
                     this.mouseDown = false;
                     this.mouseDownTime = 0;
+                    SpellPreview.stop();
                 }
             }
 
@@ -157,6 +159,7 @@ public class Utterance extends SimpleBlock {
                 this.mouseDownTime = System.currentTimeMillis();
 
                 ClientPlayNetworking.send(new StartUtterancePayload(id));
+                SpellPreview.start(id);
                 return true;
             }
             return false;
@@ -169,11 +172,17 @@ public class Utterance extends SimpleBlock {
                 this.mouseDownTime = 0;
 
                 ClientPlayNetworking.send(new StopUtterancePayload());
+                SpellPreview.stop();
                 return true;
             }
             return false;
         }
 
+        @Override
+        public Identifier getUtterance() {
+            return id;
+        }
+
         @Override
         public void setFocused(boolean focused) {
             // we can't provide reasonable focus behavior
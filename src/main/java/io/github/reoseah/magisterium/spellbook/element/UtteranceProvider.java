@@ -0,0 +1,7 @@
+package io.github.reoseah.magisterium.spellbook.element;
+
+import net.minecraft.util.Identifier;
+
+public interface UtteranceProvider {
+    Identifier getUtterance();
+}
@@ -0,0 +1,103 @@
+package io.github.reoseah.magisterium.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import org.jetbrains.annotations.Nullable;
+
+// Collects block changes and writes them together, section by section, sending neighbor updates
+// only across the border of the batch. Changes the caster isn't allowed to make are dropped as they are added.
+public class BlockChangeBatch {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final ServerWorld world;
+    private final @Nullable BuildPermissions permissions;
+    private final @Nullable ChangeJournal journal;
+    private final Long2ObjectLinkedOpenHashMap<BlockState> changes = new Long2ObjectLinkedOpenHashMap<>();
+    private boolean replicated;
+
+    public BlockChangeBatch(ServerWorld world, @Nullable BuildPermissions permissions, @Nullable ChangeJournal journal) {
+        this.world = world;
+        this.permissions = permissions;
+        this.journal = journal;
+    }
+
+    public void setReplicated(boolean replicated) {
+        this.replicated = replicated;
+    }
+
+    // returns false if the change was dropped
+    public boolean set(BlockPos pos, BlockState state) {
+        if (this.permissions != null && !this.permissions.canModify(pos)) {
+            return false;
+        }
+        this.changes.put(pos.asLong(), state);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return this.changes.isEmpty();
+    }
+
+    public void apply() {
+        if (this.changes.isEmpty()) {
+            return;
+        }
+        var bySection = new Long2ObjectLinkedOpenHashMap<LongArrayList>();
+        for (long packed : this.changes.keySet()) {
+            bySection.computeIfAbsent(ChunkSectionPos.fromBlockPos(packed), key -> new LongArrayList()).add(packed);
+        }
+
+        var pos = new BlockPos.Mutable();
+        // previous states of the positions that actually changed
+        var changed = new Long2ObjectLinkedOpenHashMap<BlockState>(this.changes.size());
+        var lighting = (DeferredLighting) this.world.getChunkManager().getLightingProvider();
+        lighting.magisterium$deferChecks();
+        try {
+            for (var positions : bySection.values()) {
+                for (int i = 0; i < positions.size(); i++) {
+                    long packed = positions.getLong(i);
+                    pos.set(packed);
+                    BlockState previous = this.world.getBlockState(pos);
+                    BlockState state = this.changes.get(packed);
+                    if (this.world.setBlockState(pos, state, Block.FORCE_STATE)) {
+                        if (!this.replicated) {
+                            this.world.getChunkManager().markForUpdate(pos);
+                        }
+                        changed.put(packed, previous);
+                        if (this.journal != null) {
+                            this.journal.add(packed, previous, state);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lighting.magisterium$flushChecks();
+        }
+
+        var neighbor = new BlockPos.Mutable();
+        for (var entry : changed.long2ObjectEntrySet()) {
+            pos.set(entry.getLongKey());
+            BlockState previous = entry.getValue();
+            BlockState state = this.world.getBlockState(pos);
+            for (Direction direction : DIRECTIONS) {
+                neighbor.set(pos, direction);
+                if (this.changes.containsKey(neighbor.asLong())) {
+                    continue;
+                }
+                this.world.replaceWithStateForNeighborUpdate(direction.getOpposite(), state, neighbor, pos, Block.NOTIFY_ALL, 512);
+                this.world.updateNeighbor(neighbor, previous.getBlock(), pos);
+            }
+            if (state.hasComparatorOutput() || previous.hasComparatorOutput()) {
+                this.world.updateComparators(pos, state.getBlock());
+            }
+        }
+
+        this.changes.clear();
+    }
+}
@@ -0,0 +1,154 @@
+package io.github.reoseah.magisterium.world;
+
+import io.github.reoseah.magisterium.MagisteriumAttachments;
+import io.github.reoseah.magisterium.MagisteriumBlockTags;
+import io.github.reoseah.magisterium.block.GlyphBlock;
+import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
+import net.minecraft.block.BlockState;
+import net.minecraft.state.property.Properties;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+// Positions of blocks matching a predicate in each chunk, built on first query and kept up to date after that,
+// so that spells can find them without scanning a volume.
+public class BlockIndex {
+    public static final BlockIndex GLYPHS = new BlockIndex(MagisteriumAttachments.GLYPHS, MagisteriumAttachments.SAVED_GLYPHS, state -> state.isOf(GlyphBlock.INSTANCE));
+    // lit and unlit states are both indexed, so toggling LIT doesn't touch the index
+    public static final BlockIndex FLAME_TARGETS = new BlockIndex(MagisteriumAttachments.FLAME_TARGETS, null, state -> state.contains(Properties.LIT) && state.isIn(MagisteriumBlockTags.AWAKEN_THE_FIRE_TARGETS));
+
+    private final AttachmentType<PositionSet> type;
+    private final @Nullable AttachmentType<PositionSet> savedType;
+    private final Predicate<BlockState> predicate;
+    // bumped when the predicate starts matching different states, e.g. after tags are reloaded
+    private int generation;
+
+    public BlockIndex(AttachmentType<PositionSet> type, @Nullable AttachmentType<PositionSet> savedType, Predicate<BlockState> predicate) {
+        this.type = type;
+        this.savedType = savedType;
+        this.predicate = predicate;
+    }
+
+    public void invalidate() {
+        this.generation++;
+    }
+
+    public void onStateChanged(Chunk chunk, BlockPos pos, BlockState previous, BlockState state) {
+        boolean matched = this.predicate.test(previous);
+        boolean matches = this.predicate.test(state);
+        if (matched == matches) {
+            return;
+        }
+        var positions = this.getIfIndexed(chunk);
+        if (positions == null) {
+            return;
+        }
+        if (matches) {
+            positions.add(pos.asLong());
+        } else {
+            positions.remove(pos.asLong());
+        }
+        this.updateSaved(chunk, positions);
+    }
+
+    public void forEach(World world, BlockBox box, LongConsumer consumer) {
+        int minChunkX = ChunkSectionPos.getSectionCoord(box.getMinX()), maxChunkX = ChunkSectionPos.getSectionCoord(box.getMaxX());
+        int minChunkZ = ChunkSectionPos.getSectionCoord(box.getMinZ()), maxChunkZ = ChunkSectionPos.getSectionCoord(box.getMaxZ());
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                this.forEach(world, chunkX, chunkZ, box, consumer);
+            }
+        }
+    }
+
+    // like forEach, but skips chunks that aren't loaded instead of loading them
+    public void forEachLoaded(World world, BlockBox box, LongConsumer consumer) {
+        int minChunkX = ChunkSectionPos.getSectionCoord(box.getMinX()), maxChunkX = ChunkSectionPos.getSectionCoord(box.getMaxX());
+        int minChunkZ = ChunkSectionPos.getSectionCoord(box.getMinZ()), maxChunkZ = ChunkSectionPos.getSectionCoord(box.getMaxZ());
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if (world.getChunkManager().getWorldChunk(chunkX, chunkZ) != null) {
+                    this.forEach(world, chunkX, chunkZ, box, consumer);
+                }
+            }
+        }
+    }
+
+    public void forEach(World world, int chunkX, int chunkZ, BlockBox box, LongConsumer consumer) {
+        var iterator = this.get(world, world.getChunk(chunkX, chunkZ)).iterator();
+        while (iterator.hasNext()) {
+            long packed = iterator.nextLong();
+            if (box.contains(BlockPos.unpackLongX(packed), BlockPos.unpackLongY(packed), BlockPos.unpackLongZ(packed))) {
+                consumer.accept(packed);
+            }
+        }
+    }
+
+    // indexes the chunk first if needed, positions in chunks that aren't loaded are never contained
+    public boolean contains(World world, BlockPos pos) {
+        var chunk = world.getChunkManager().getWorldChunk(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
+        return chunk != null && this.get(world, chunk).contains(pos.asLong());
+    }
+
+    // size of the chunk's index if it's loaded and already indexed, doesn't scan it otherwise
+    public int count(World world, int chunkX, int chunkZ) {
+        var chunk = world.getChunkManager().getWorldChunk(chunkX, chunkZ);
+        var positions = chunk == null ? null : this.getIfIndexed(chunk);
+        return positions == null ? 0 : positions.size();
+    }
+
+    private PositionSet get(World world, Chunk chunk) {
+        var positions = this.getIfIndexed(chunk);
+        if (positions == null) {
+            positions = this.scan(world, chunk);
+            chunk.setAttached(this.type, positions);
+            this.updateSaved(chunk, positions);
+        }
+        return positions;
+    }
+
+    private @Nullable PositionSet getIfIndexed(Chunk chunk) {
+        var positions = chunk.getAttached(this.type);
+        if (positions == null && this.savedType != null) {
+            // loaded with the chunk
+            positions = chunk.getAttached(this.savedType);
+            if (positions != null) {
+                chunk.setAttached(this.type, positions);
+            }
+        }
+        return positions == null || positions.generation != this.generation ? null : positions;
+    }
+
+    private void updateSaved(Chunk chunk, PositionSet positions) {
+        if (this.savedType == null) {
+            return;
+        }
+        if (!positions.isEmpty()) {
+            if (chunk.getAttached(this.savedType) != positions) {
+                chunk.setAttached(this.savedType, positions);
+            }
+            chunk.setNeedsSaving(true);
+        } else if (chunk.getAttached(this.savedType) != null) {
+            chunk.removeAttached(this.savedType);
+            chunk.setNeedsSaving(true);
+        }
+    }
+
+    private PositionSet scan(World world, Chunk chunk) {
+        var positions = new PositionSet(this.generation);
+        var pos = chunk.getPos();
+        var box = new BlockBox(pos.getStartX(), world.getBottomY(), pos.getStartZ(), pos.getEndX(), world.getTopY() - 1, pos.getEndZ());
+        var sections = chunk.getSectionArray();
+        for (int i = 0; i < sections.length; i++) {
+            SectionTraversal.visitSection(sections[i], pos.x, world.sectionIndexToCoord(i), pos.z, box, this.predicate,
+                    (matchPos, state) -> positions.add(matchPos.asLong()));
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.reoseah.magisterium.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+
+@FunctionalInterface
+public interface BlockVisitor {
+    // the position is mutable and reused between calls, copy it with toImmutable() if it needs to be kept
+    void visit(BlockPos.Mutable pos, BlockState state);
+}
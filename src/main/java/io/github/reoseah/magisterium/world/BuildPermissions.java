@@ -0,0 +1,155 @@
+package io.github.reoseah.magisterium.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.Formatting;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+// Whether the caster of a spell may change blocks, resolved once per chunk and cached for the cast.
+// Protection mods can answer for a whole chunk through the CHECK event.
+public class BuildPermissions {
+    public static final Event<Check> CHECK = EventFactory.createArrayBacked(Check.class, listeners -> (player, world, chunk) -> {
+        var result = Access.ALLOWED;
+        for (var listener : listeners) {
+            result = result.and(listener.check(player, world, chunk));
+            if (result == Access.FORBIDDEN) {
+                break;
+            }
+        }
+        return result;
+    });
+
+    private static final Text FORBIDDEN_MESSAGE = Text.translatable("magisterium.gui.no_permission").formatted(Formatting.DARK_PURPLE, Formatting.ITALIC);
+
+    private final @Nullable PlayerEntity player;
+    private final ServerWorld world;
+    private final Long2ObjectOpenHashMap<Access> chunks = new Long2ObjectOpenHashMap<>();
+    private boolean notified;
+
+    public BuildPermissions(@Nullable PlayerEntity player, ServerWorld world) {
+        this.player = player;
+        this.world = world;
+    }
+
+    public boolean canModifyChunk(int chunkX, int chunkZ) {
+        return this.getAccess(chunkX, chunkZ) != Access.FORBIDDEN;
+    }
+
+    public boolean canModify(BlockPos pos) {
+        return switch (this.getAccess(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))) {
+            case ALLOWED -> true;
+            case FORBIDDEN -> {
+                this.notifyForbidden();
+                yield false;
+            }
+            case PER_BLOCK -> {
+                boolean allowed = this.player != null //
+                        ? this.world.canPlayerModifyAt(this.player, pos) //
+                        : this.world.getWorldBorder().contains(pos) && !isSpawnProtected(this.world, pos, null);
+                if (!allowed) {
+                    this.notifyForbidden();
+                }
+                yield allowed;
+            }
+        };
+    }
+
+    // doesn't tell the player anything, so it can be used to estimate or prepare casts that may never apply
+    public Access getAccess(int chunkX, int chunkZ) {
+        long key = ChunkPos.toLong(chunkX, chunkZ);
+        var access = this.chunks.get(key);
+        if (access == null) {
+            access = this.resolve(new ChunkPos(chunkX, chunkZ));
+            this.chunks.put(key, access);
+        }
+        return access;
+    }
+
+    // tells the player if any chunk looked at so far is forbidden, once the cast actually applies
+    public void reportForbidden() {
+        if (!this.notified && this.chunks.containsValue(Access.FORBIDDEN)) {
+            this.notifyForbidden();
+        }
+    }
+
+    private Access resolve(ChunkPos chunk) {
+        if (this.player != null && !this.player.canModifyBlocks()) {
+            return Access.FORBIDDEN;
+        }
+        return resolveVanilla(this.player, this.world, chunk).and(CHECK.invoker().check(this.player, this.world, chunk));
+    }
+
+    // Spawn protection and the world border are both axis-aligned squares, so a chunk is entirely inside
+    // one if all of its corners are, and entirely outside if its point closest to the center is.
+    private static Access resolveVanilla(@Nullable PlayerEntity player, ServerWorld world, ChunkPos chunk) {
+        int y = world.getBottomY();
+        var spawn = world.getSpawnPos();
+        var center = BlockPos.ofFloored(world.getWorldBorder().getCenterX(), y, world.getWorldBorder().getCenterZ());
+
+        int protectedCorners = 0, outsideCorners = 0;
+        for (int i = 0; i < 4; i++) {
+            var corner = new BlockPos((i & 1) == 0 ? chunk.getStartX() : chunk.getEndX(), y, (i & 2) == 0 ? chunk.getStartZ() : chunk.getEndZ());
+            if (isSpawnProtected(world, corner, player)) {
+                protectedCorners++;
+            }
+            if (!world.getWorldBorder().contains(corner)) {
+                outsideCorners++;
+            }
+        }
+        if (protectedCorners == 4 || !world.getWorldBorder().contains(closestTo(chunk, center))) {
+            return Access.FORBIDDEN;
+        }
+        if (outsideCorners == 0 && !isSpawnProtected(world, closestTo(chunk, spawn), player)) {
+            return Access.ALLOWED;
+        }
+        return Access.PER_BLOCK;
+    }
+
+    // without a player, the same area as MinecraftDedicatedServer#isSpawnProtected, just without exempting operators
+    private static boolean isSpawnProtected(ServerWorld world, BlockPos pos, @Nullable PlayerEntity player) {
+        var server = world.getServer();
+        if (player != null) {
+            return server.isSpawnProtected(world, pos, player);
+        }
+        if (!server.isDedicated() || world.getRegistryKey() != World.OVERWORLD || server.getSpawnProtectionRadius() <= 0) {
+            return false;
+        }
+        var spawn = world.getSpawnPos();
+        return Math.max(Math.abs(pos.getX() - spawn.getX()), Math.abs(pos.getZ() - spawn.getZ())) <= server.getSpawnProtectionRadius();
+    }
+
+    private static BlockPos closestTo(ChunkPos chunk, BlockPos pos) {
+        return new BlockPos(MathHelper.clamp(pos.getX(), chunk.getStartX(), chunk.getEndX()), pos.getY(), MathHelper.clamp(pos.getZ(), chunk.getStartZ(), chunk.getEndZ()));
+    }
+
+    private void notifyForbidden() {
+        if (!this.notified && this.player != null) {
+            this.notified = true;
+            this.player.sendMessage(FORBIDDEN_MESSAGE, true);
+        }
+    }
+
+    public enum Access {
+        ALLOWED, PER_BLOCK, FORBIDDEN;
+
+        public Access and(Access other) {
+            return this.ordinal() >= other.ordinal() ? this : other;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Check {
+        // PER_BLOCK makes every position in the chunk go through World.canPlayerModifyAt,
+        // the player is null for casts without a caster
+        Access check(@Nullable PlayerEntity player, ServerWorld world, ChunkPos chunk);
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.reoseah.magisterium.world;
+
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.command.argument.BlockArgumentParser;
+import net.minecraft.registry.Registries;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Block changes made by one cast, in order, with states stored as raw ids,
+// written to disk with a palette of state strings since raw ids change between game versions and mod sets.
+public class ChangeJournal {
+    private long[] positions = new long[16];
+    private int[] oldStates = new int[16];
+    private int[] newStates = new int[16];
+    private int size;
+
+    public void add(long pos, BlockState previous, BlockState state) {
+        if (this.size == this.positions.length) {
+            int capacity = this.size * 2;
+            this.positions = Arrays.copyOf(this.positions, capacity);
+            this.oldStates = Arrays.copyOf(this.oldStates, capacity);
+            this.newStates = Arrays.copyOf(this.newStates, capacity);
+        }
+        this.positions[this.size] = pos;
+        this.oldStates[this.size] = Block.getRawIdFromState(previous);
+        this.newStates[this.size] = Block.getRawIdFromState(state);
+        this.size++;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public long getPos(int index) {
+        return this.positions[index];
+    }
+
+    public BlockState getOldState(int index) {
+        return Block.getStateFromRawId(this.oldStates[index]);
+    }
+
+    public BlockState getNewState(int index) {
+        return Block.getStateFromRawId(this.newStates[index]);
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        var indices = new Int2IntOpenHashMap();
+        var palette = new IntArrayList();
+        for (int i = 0; i < this.size; i++) {
+            indices.computeIfAbsent(this.oldStates[i], rawId -> addToPalette(palette, rawId));
+            indices.computeIfAbsent(this.newStates[i], rawId -> addToPalette(palette, rawId));
+        }
+        out.writeInt(palette.size());
+        for (int i = 0; i < palette.size(); i++) {
+            out.writeUTF(BlockArgumentParser.stringifyBlockState(Block.getStateFromRawId(palette.getInt(i))));
+        }
+        out.writeInt(this.size);
+        for (int i = 0; i < this.size; i++) {
+            out.writeLong(this.positions[i]);
+            out.writeInt(indices.get(this.oldStates[i]));
+            out.writeInt(indices.get(this.newStates[i]));
+        }
+    }
+
+    private static int addToPalette(IntArrayList palette, int rawId) {
+        palette.add(rawId);
+        return palette.size() - 1;
+    }
+
+    public static ChangeJournal read(DataInputStream in) throws IOException {
+        int paletteSize = in.readInt();
+        if (paletteSize < 0) {
+            throw new IOException("Negative palette size " + paletteSize);
+        }
+        var palette = new int[paletteSize];
+        for (int i = 0; i < paletteSize; i++) {
+            var string = in.readUTF();
+            try {
+                var state = BlockArgumentParser.block(Registries.BLOCK.getReadOnlyWrapper(), string, false).blockState();
+                palette[i] = Block.getRawIdFromState(state);
+            } catch (CommandSyntaxException e) {
+                throw new IOException("Unknown block state " + string, e);
+            }
+        }
+        var journal = new ChangeJournal();
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Negative journal size " + size);
+        }
+        journal.positions = new long[Math.max(size, 1)];
+        journal.oldStates = new int[Math.max(size, 1)];
+        journal.newStates = new int[Math.max(size, 1)];
+        for (int i = 0; i < size; i++) {
+            journal.positions[i] = in.readLong();
+            journal.oldStates[i] = getFromPalette(palette, in.readInt());
+            journal.newStates[i] = getFromPalette(palette, in.readInt());
+        }
+        journal.size = size;
+        return journal;
+    }
+
+    private static int getFromPalette(int[] palette, int index) throws IOException {
+        if (index < 0 || index >= palette.length) {
+            throw new IOException("Palette index " + index + " out of bounds");
+        }
+        return palette[index];
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.reoseah.magisterium.world;
+
+import io.github.reoseah.magisterium.network.SpellChangesPayload;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.block.Block;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.LinkedHashSet;
+
+// Sends the changes of a finished cast as one SpellChangesPayload, then marks every position
+// where clients replaying it would get a different result for a regular block update.
+public class ChangeReplication {
+    public static void send(ServerWorld world, Identifier spell, SpellChangesPayload.Area area, ChangeJournal journal) {
+        if (journal.isEmpty()) {
+            return;
+        }
+        // first old and last new state of each position
+        var oldStates = new Long2IntOpenHashMap();
+        var newStates = new Long2IntOpenHashMap();
+        var sections = new LongOpenHashSet();
+        for (int i = 0; i < journal.size(); i++) {
+            long pos = journal.getPos(i);
+            if (!oldStates.containsKey(pos)) {
+                oldStates.put(pos, Block.getRawIdFromState(journal.getOldState(i)));
+            }
+            newStates.put(pos, Block.getRawIdFromState(journal.getNewState(i)));
+            sections.add(ChunkSectionPos.fromBlockPos(pos));
+        }
+
+        var remap = new Int2IntOpenHashMap();
+        var excluded = new IntOpenHashSet();
+        for (var entry : oldStates.long2IntEntrySet()) {
+            int from = entry.getIntValue(), to = newStates.get(entry.getLongKey());
+            if (from != to && remap.getOrDefault(from, to) != to) {
+                excluded.add(from);
+            }
+            remap.put(from, to);
+        }
+        for (int to : remap.values()) {
+            excluded.add(to);
+        }
+        remap.keySet().removeAll(excluded);
+
+        if (sections.size() > SpellChangesPayload.MAX_SECTIONS || remap.size() > SpellChangesPayload.MAX_REMAPS) {
+            // too much for clients to replay at once, sent as regular updates instead
+            for (long pos : oldStates.keySet()) {
+                world.getChunkManager().markForUpdate(BlockPos.fromLong(pos));
+            }
+            return;
+        }
+
+        var pos = new BlockPos.Mutable();
+        // changed positions the replay gets wrong
+        for (var entry : newStates.long2IntEntrySet()) {
+            pos.set(entry.getLongKey());
+            int predicted = area.contains(pos.getX(), pos.getY(), pos.getZ()) ? remap.getOrDefault(oldStates.get(entry.getLongKey()), -1) : -1;
+            if (predicted != entry.getIntValue()) {
+                world.getChunkManager().markForUpdate(pos);
+            }
+        }
+        // positions the replay would change that the cast didn't
+        var box = area.getBox();
+        var loadedSections = new LongOpenHashSet();
+        var players = new LinkedHashSet<ServerPlayerEntity>();
+        for (long section : sections) {
+            int sectionX = ChunkSectionPos.unpackX(section), sectionY = ChunkSectionPos.unpackY(section), sectionZ = ChunkSectionPos.unpackZ(section);
+            var chunk = world.getChunkManager().getWorldChunk(sectionX, sectionZ);
+            if (chunk == null || sectionY < world.getBottomSectionCoord() || sectionY >= world.getTopSectionCoord()) {
+                continue;
+            }
+            loadedSections.add(section);
+            players.addAll(PlayerLookup.tracking(world, new ChunkPos(sectionX, sectionZ)));
+
+            var states = chunk.getSection(world.sectionCoordToIndex(sectionY)).getBlockStateContainer();
+            if (!states.hasAny(state -> remap.containsKey(Block.getRawIdFromState(state)))) {
+                continue;
+            }
+            int originX = ChunkSectionPos.getBlockCoord(sectionX), originY = ChunkSectionPos.getBlockCoord(sectionY), originZ = ChunkSectionPos.getBlockCoord(sectionZ);
+            for (int index = 0; index < 16 * 16 * 16; index++) {
+                int x = index & 15, y = index >> 8, z = (index >> 4) & 15;
+                pos.set(originX + x, originY + y, originZ + z);
+                if (box.contains(pos) && !newStates.containsKey(pos.asLong()) && area.contains(pos.getX(), pos.getY(), pos.getZ())
+                        && remap.containsKey(Block.getRawIdFromState(states.get(x, y, z)))) {
+                    world.getChunkManager().markForUpdate(pos);
+                }
+            }
+        }
+
+        if (players.isEmpty()) {
+            return;
+        }
+        var payload = new SpellChangesPayload(spell, area, loadedSections.toLongArray(), remap.keySet().toIntArray(), remap.values().toIntArray());
+        for (var player : players) {
+            ServerPlayNetworking.send(player, payload);
+        }
+    }
+}
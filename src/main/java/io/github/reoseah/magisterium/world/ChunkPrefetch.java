@@ -0,0 +1,46 @@
+package io.github.reoseah.magisterium.world;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+// Temporary chunk tickets for the area of a spell, added when the utterance starts,
+// so that chunks near the edge of loaded terrain load in the background while the player is reading.
+public class ChunkPrefetch {
+    // every prefetch has a distinct argument, so that overlapping casts don't remove each other's tickets
+    public static final ChunkTicketType<Long> TICKET_TYPE = ChunkTicketType.create("magisterium:spell", Long::compare);
+    // area spells also read and update blocks right outside their area, e.g. neighbors of placed fire
+    private static final int MARGIN = 2;
+
+    private static long nextId;
+
+    private final ServerWorld world;
+    private final long id;
+    private final LongList chunks = new LongArrayList();
+
+    public ChunkPrefetch(ServerWorld world, BlockBox area) {
+        this.world = world;
+        this.id = nextId++;
+
+        int minChunkX = ChunkSectionPos.getSectionCoord(area.getMinX() - MARGIN), maxChunkX = ChunkSectionPos.getSectionCoord(area.getMaxX() + MARGIN);
+        int minChunkZ = ChunkSectionPos.getSectionCoord(area.getMinZ() - MARGIN), maxChunkZ = ChunkSectionPos.getSectionCoord(area.getMaxZ() + MARGIN);
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                var pos = new ChunkPos(chunkX, chunkZ);
+                world.getChunkManager().addTicket(TICKET_TYPE, pos, 0, this.id);
+                this.chunks.add(pos.toLong());
+            }
+        }
+    }
+
+    public void release() {
+        for (int i = 0; i < this.chunks.size(); i++) {
+            this.world.getChunkManager().removeTicket(TICKET_TYPE, new ChunkPos(this.chunks.getLong(i)), 0, this.id);
+        }
+        this.chunks.clear();
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.reoseah.magisterium.world;
+
+// Implemented on ServerLightingProvider by a mixin, merges deferred light checks into one task per section.
+// Clients spread them over ticks instead, see DeferredClientLighting.
+public interface DeferredLighting {
+    void magisterium$deferChecks();
+
+    void magisterium$flushChecks();
+}
@@ -0,0 +1,82 @@
+package io.github.reoseah.magisterium.world;
+
+import net.fabricmc.fabric.api.registry.FlammableBlockRegistry;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.ConnectingBlock;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockView;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+
+// Lookup tables for placing fire, so spells don't go through FlammableBlockRegistry
+// and BlockState#with for every position they look at.
+public class Flammability {
+    // directions fire can attach to, in the order of bits in the fire state table
+    private static final Direction[] FIRE_FACES = {Direction.NORTH, Direction.EAST, Direction.SOUTH, Direction.WEST, Direction.UP};
+    private static final BlockState[] FIRE_STATES = new BlockState[1 << FIRE_FACES.length];
+
+    static {
+        for (int mask = 0; mask < FIRE_STATES.length; mask++) {
+            var state = Blocks.FIRE.getDefaultState();
+            for (int i = 0; i < FIRE_FACES.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    state = state.with(ConnectingBlock.FACING_PROPERTIES.get(FIRE_FACES[i]), true);
+                }
+            }
+            FIRE_STATES[mask] = state;
+        }
+    }
+
+    // indexed by raw state id, rebuilt on first use after tags are reloaded,
+    // since flammability in FlammableBlockRegistry can come from tags
+    private static volatile @Nullable BitSet flammable;
+
+    public static void invalidate() {
+        flammable = null;
+    }
+
+    public static boolean isFlammable(BlockState state) {
+        var table = flammable;
+        if (table == null) {
+            table = rebuild();
+        }
+        return table.get(Block.getRawIdFromState(state));
+    }
+
+    private static synchronized BitSet rebuild() {
+        if (flammable != null) {
+            return flammable;
+        }
+        var registry = FlammableBlockRegistry.getInstance(Blocks.FIRE);
+        var table = new BitSet(Block.STATE_IDS.size());
+        for (Block block : Registries.BLOCK) {
+            var entry = registry.get(block);
+            if (entry != null && entry.getBurnChance() > 0) {
+                for (BlockState state : block.getStateManager().getStates()) {
+                    table.set(Block.getRawIdFromState(state));
+                }
+            }
+        }
+        flammable = table;
+        return table;
+    }
+
+    // fire for an air block that doesn't stand on a solid floor: attached to every flammable face around it
+    public static BlockState getHangingFireState(BlockView world, BlockPos pos) {
+        var neighbor = new BlockPos.Mutable();
+        int mask = 0;
+        for (int i = 0; i < FIRE_FACES.length; i++) {
+            var direction = FIRE_FACES[i];
+            var state = world.getBlockState(neighbor.set(pos, direction));
+            if (isFlammable(state) && state.isSideSolidFullSquare(world, neighbor, direction.getOpposite())) {
+                mask |= 1 << i;
+            }
+        }
+        return FIRE_STATES[mask];
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.reoseah.magisterium.world;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// A flat shape of glyphs recognized as a ritual structure, given as offsets from its anchor, usually its center.
+// Each pattern is compiled into its distinct rotations, which are matched separately.
+public class GlyphPattern {
+    public static final GlyphPattern SMALL_CIRCLE = ring(Identifier.of("magisterium:small_circle"), 2);
+    public static final GlyphPattern CIRCLE = ring(Identifier.of("magisterium:circle"), 4);
+    public static final GlyphPattern GREAT_CIRCLE = ring(Identifier.of("magisterium:great_circle"), 7);
+    public static final GlyphPattern LINE = new GlyphPattern(Identifier.of("magisterium:line"), 2, //
+            new int[]{-2, -1, 0, 1, 2, -2, -1, 0, 1, 2}, new int[]{0, 0, 0, 0, 0, -2, -1, 0, 1, 2}, 5);
+    public static final GlyphPattern STAR = star(Identifier.of("magisterium:star"), 2);
+
+    public static final List<GlyphPattern> ALL = List.of(SMALL_CIRCLE, CIRCLE, GREAT_CIRCLE, LINE, STAR);
+    public static final Codec<GlyphPattern> CODEC = Identifier.CODEC.comapFlatMap(id -> ALL.stream() //
+            .filter(pattern -> pattern.id.equals(id)) //
+            .findFirst() //
+            .map(DataResult::success) //
+            .orElseGet(() -> DataResult.error(() -> "Unknown glyph pattern " + id)), pattern -> pattern.id);
+
+    public final Identifier id;
+    // how far from the anchor the glyphs reach on either axis
+    public final int radius;
+    public final List<Variant> variants;
+
+    // offsets of several shapes can be given at once, each `shapeSize` long, e.g. a straight and a diagonal line
+    private GlyphPattern(Identifier id, int radius, int[] xs, int[] zs, int shapeSize) {
+        this.id = id;
+        this.radius = radius;
+        var variants = new ArrayList<Variant>();
+        var seen = new ArrayList<LongOpenHashSet>();
+        for (int start = 0; start < xs.length; start += shapeSize) {
+            int[] x = new int[shapeSize], z = new int[shapeSize];
+            for (int i = 0; i < shapeSize; i++) {
+                x[i] = xs[start + i];
+                z[i] = zs[start + i];
+            }
+            for (int rotation = 0; rotation < 4; rotation++) {
+                var key = new LongOpenHashSet();
+                for (int i = 0; i < shapeSize; i++) {
+                    key.add((long) x[i] << 32 | (z[i] & 0xFFFFFFFFL));
+                }
+                if (!seen.contains(key)) {
+                    seen.add(key);
+                    variants.add(new Variant(this, x.clone(), z.clone()));
+                }
+                for (int i = 0; i < shapeSize; i++) {
+                    int previousX = x[i];
+                    x[i] = -z[i];
+                    z[i] = previousX;
+                }
+            }
+        }
+        this.variants = Collections.unmodifiableList(variants);
+    }
+
+    private static GlyphPattern ring(Identifier id, int radius) {
+        var xs = new ArrayList<Integer>();
+        var zs = new ArrayList<Integer>();
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                if (Math.round(Math.sqrt(dx * dx + dz * dz)) == radius) {
+                    xs.add(dx);
+                    zs.add(dz);
+                }
+            }
+        }
+        return new GlyphPattern(id, radius, toArray(xs), toArray(zs), xs.size());
+    }
+
+    // a center with arms in all eight directions
+    private static GlyphPattern star(Identifier id, int length) {
+        var xs = new ArrayList<Integer>(List.of(0));
+        var zs = new ArrayList<Integer>(List.of(0));
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int i = 1; i <= length && (dx != 0 || dz != 0); i++) {
+                    xs.add(dx * i);
+                    zs.add(dz * i);
+                }
+            }
+        }
+        return new GlyphPattern(id, length, toArray(xs), toArray(zs), xs.size());
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // whether a position at this horizontal offset from the anchor is within the structure
+    public boolean encloses(int dx, int dz) {
+        return dx * dx + dz * dz <= this.radius * this.radius + this.radius;
+    }
+
+    @Override
+    public String toString() {
+        return this.id.toString();
+    }
+
+    public record Variant(GlyphPattern pattern, int[] xs, int[] zs) {
+    }
+}
@@ -0,0 +1,197 @@
+package io.github.reoseah.magisterium.world;
+
+import io.github.reoseah.magisterium.MagisteriumAttachments;
+import io.github.reoseah.magisterium.block.GlyphBlock;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectArrayMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Glyph patterns reaching into a chunk, kept up to date as glyphs are placed and removed
+// through a precompiled table of pattern triggers, and rebuilt from the glyph index when first queried.
+// A structure is listed in every chunk it reaches into, so a lookup only needs the chunk of the position.
+public class GlyphStructures {
+    private static final List<GlyphPattern.Variant> TRIGGER_VARIANTS = new ArrayList<>();
+    private static final int[] TRIGGER_X, TRIGGER_Z;
+    private static final int MAX_RADIUS;
+
+    static {
+        var xs = new ArrayList<Integer>();
+        var zs = new ArrayList<Integer>();
+        int maxRadius = 0;
+        for (var pattern : GlyphPattern.ALL) {
+            maxRadius = Math.max(maxRadius, pattern.radius);
+            for (var variant : pattern.variants) {
+                for (int i = 0; i < variant.xs().length; i++) {
+                    TRIGGER_VARIANTS.add(variant);
+                    xs.add(variant.xs()[i]);
+                    zs.add(variant.zs()[i]);
+                }
+            }
+        }
+        TRIGGER_X = xs.stream().mapToInt(Integer::intValue).toArray();
+        TRIGGER_Z = zs.stream().mapToInt(Integer::intValue).toArray();
+        MAX_RADIUS = maxRadius;
+    }
+
+    private final Reference2ObjectArrayMap<GlyphPattern.Variant, LongOpenHashSet> anchors = new Reference2ObjectArrayMap<>();
+
+    public static void onStateChanged(WorldChunk chunk, BlockPos pos, BlockState previous, BlockState state) {
+        boolean placed = state.isOf(GlyphBlock.INSTANCE);
+        if (placed == previous.isOf(GlyphBlock.INSTANCE)) {
+            return;
+        }
+        var world = chunk.getWorld();
+        var anchor = new BlockPos.Mutable();
+        for (int i = 0; i < TRIGGER_X.length; i++) {
+            anchor.set(pos.getX() - TRIGGER_X[i], pos.getY(), pos.getZ() - TRIGGER_Z[i]);
+            var variant = TRIGGER_VARIANTS.get(i);
+            int radius = variant.pattern().radius;
+            // matched at most once, and only if a chunk it reaches into has its structures built
+            int matched = placed ? -1 : 0;
+            for (int chunkX = ChunkSectionPos.getSectionCoord(anchor.getX() - radius); chunkX <= ChunkSectionPos.getSectionCoord(anchor.getX() + radius); chunkX++) {
+                for (int chunkZ = ChunkSectionPos.getSectionCoord(anchor.getZ() - radius); chunkZ <= ChunkSectionPos.getSectionCoord(anchor.getZ() + radius); chunkZ++) {
+                    var covered = world.getChunkManager().getWorldChunk(chunkX, chunkZ);
+                    var structures = covered == null ? null : covered.getAttached(MagisteriumAttachments.GLYPH_STRUCTURES);
+                    if (structures == null) {
+                        continue;
+                    }
+                    if (!placed) {
+                        structures.remove(variant, anchor.asLong());
+                        continue;
+                    }
+                    if (matched == -1) {
+                        matched = matches(world, variant, anchor) ? 1 : 0;
+                    }
+                    if (matched == 1) {
+                        structures.add(variant, anchor.asLong());
+                    }
+                }
+            }
+        }
+    }
+
+    public static void onChunkLoaded(World world, WorldChunk chunk) {
+        var pos = chunk.getPos();
+        // glyphs here can belong to structures reaching as far as their diameter away
+        int reach = ChunkSectionPos.getSectionCoord(2 * MAX_RADIUS + 15);
+        for (int chunkX = pos.x - reach; chunkX <= pos.x + reach; chunkX++) {
+            for (int chunkZ = pos.z - reach; chunkZ <= pos.z + reach; chunkZ++) {
+                var neighbor = world.getChunkManager().getWorldChunk(chunkX, chunkZ);
+                if (neighbor != null && neighbor != chunk) {
+                    neighbor.removeAttached(MagisteriumAttachments.GLYPH_STRUCTURES);
+                }
+            }
+        }
+    }
+
+    // whether the position is inside a structure of the pattern, with the glyphs at its level or the one below
+    public static boolean isInside(World world, BlockPos pos, GlyphPattern pattern) {
+        return findEnclosing(world, pos, pattern) != null;
+    }
+
+    public static @Nullable BlockPos findEnclosing(World world, BlockPos pos, GlyphPattern pattern) {
+        var chunk = world.getChunkManager().getWorldChunk(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
+        if (chunk == null) {
+            return null;
+        }
+        var structures = get(world, chunk);
+        for (var variant : pattern.variants) {
+            var anchors = structures.anchors.get(variant);
+            if (anchors == null) {
+                continue;
+            }
+            var iterator = anchors.iterator();
+            while (iterator.hasNext()) {
+                long anchor = iterator.nextLong();
+                int dy = pos.getY() - BlockPos.unpackLongY(anchor);
+                if ((dy == 0 || dy == 1) && pattern.encloses(pos.getX() - BlockPos.unpackLongX(anchor), pos.getZ() - BlockPos.unpackLongZ(anchor))) {
+                    return BlockPos.fromLong(anchor);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static GlyphStructures get(World world, WorldChunk chunk) {
+        var structures = chunk.getAttached(MagisteriumAttachments.GLYPH_STRUCTURES);
+        if (structures == null) {
+            structures = build(world, chunk);
+            chunk.setAttached(MagisteriumAttachments.GLYPH_STRUCTURES, structures);
+        }
+        return structures;
+    }
+
+    private static GlyphStructures build(World world, WorldChunk chunk) {
+        var structures = new GlyphStructures();
+        var chunkPos = chunk.getPos();
+        var chunkBox = new BlockBox(chunkPos.getStartX(), world.getBottomY(), chunkPos.getStartZ(), chunkPos.getEndX(), world.getTopY() - 1, chunkPos.getEndZ());
+        // glyphs of structures reaching into this chunk can be up to a diameter away from it
+        var box = chunkBox.expand(2 * MAX_RADIUS);
+        var anchor = new BlockPos.Mutable();
+        BlockIndex.GLYPHS.forEachLoaded(world, box, packed -> {
+            int x = BlockPos.unpackLongX(packed), y = BlockPos.unpackLongY(packed), z = BlockPos.unpackLongZ(packed);
+            for (int i = 0; i < TRIGGER_X.length; i++) {
+                anchor.set(x - TRIGGER_X[i], y, z - TRIGGER_Z[i]);
+                var variant = TRIGGER_VARIANTS.get(i);
+                if (reaches(variant, anchor, chunkPos) && !structures.contains(variant, anchor.asLong()) && matches(world, variant, anchor)) {
+                    structures.add(variant, anchor.asLong());
+                }
+            }
+        });
+        return structures;
+    }
+
+    private static boolean reaches(GlyphPattern.Variant variant, BlockPos anchor, ChunkPos chunk) {
+        int radius = variant.pattern().radius;
+        return anchor.getX() + radius >= chunk.getStartX() && anchor.getX() - radius <= chunk.getEndX() //
+                && anchor.getZ() + radius >= chunk.getStartZ() && anchor.getZ() - radius <= chunk.getEndZ();
+    }
+
+    private static boolean matches(World world, GlyphPattern.Variant variant, BlockPos anchor) {
+        var pos = new BlockPos.Mutable();
+        @Nullable WorldChunk chunk = null;
+        for (int i = 0; i < variant.xs().length; i++) {
+            pos.set(anchor.getX() + variant.xs()[i], anchor.getY(), anchor.getZ() + variant.zs()[i]);
+            chunk = getLoadedChunk(world, pos, chunk);
+            if (chunk == null || !chunk.getBlockState(pos).isOf(GlyphBlock.INSTANCE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // doesn't load chunks, structures reaching into chunks that aren't loaded aren't recognized
+    private static @Nullable WorldChunk getLoadedChunk(World world, BlockPos pos, @Nullable WorldChunk last) {
+        int chunkX = ChunkSectionPos.getSectionCoord(pos.getX()), chunkZ = ChunkSectionPos.getSectionCoord(pos.getZ());
+        if (last != null && last.getPos().x == chunkX && last.getPos().z == chunkZ) {
+            return last;
+        }
+        return world.getChunkManager().getWorldChunk(chunkX, chunkZ);
+    }
+
+    private boolean contains(GlyphPattern.Variant variant, long anchor) {
+        var anchors = this.anchors.get(variant);
+        return anchors != null && anchors.contains(anchor);
+    }
+
+    private void add(GlyphPattern.Variant variant, long anchor) {
+        this.anchors.computeIfAbsent(variant, key -> new LongOpenHashSet()).add(anchor);
+    }
+
+    private void remove(GlyphPattern.Variant variant, long anchor) {
+        var anchors = this.anchors.get(variant);
+        if (anchors != null && anchors.remove(anchor) && anchors.isEmpty()) {
+            this.anchors.remove(variant);
+        }
+    }
+}
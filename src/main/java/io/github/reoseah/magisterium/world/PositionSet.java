@@ -0,0 +1,22 @@
+package io.github.reoseah.magisterium.world;
+
+import com.mojang.serialization.Codec;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.util.Arrays;
+
+// Block positions packed with BlockPos#asLong, tagged with the generation of the index that built it.
+public class PositionSet extends LongOpenHashSet {
+    public static final Codec<PositionSet> CODEC = Codec.LONG_STREAM.xmap(stream -> new PositionSet(stream.toArray(), 0), set -> Arrays.stream(set.toLongArray()));
+
+    public final int generation;
+
+    public PositionSet(int generation) {
+        this.generation = generation;
+    }
+
+    public PositionSet(long[] positions, int generation) {
+        super(positions);
+        this.generation = generation;
+    }
+}
@@ -0,0 +1,144 @@
+package io.github.reoseah.magisterium.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+// Positions in a chunk section matching a filter, kept on the section until it changes,
+// so repeated or overlapping casts over the same area don't rescan it.
+public class SectionTargetCache {
+    public static final SectionTargetCache FLAMMABLE = new SectionTargetCache(Flammability::isFlammable);
+
+    private static final short[] NONE = new short[0];
+
+    private Predicate<BlockState> filter;
+    private int generation;
+
+    public SectionTargetCache(Predicate<BlockState> filter) {
+        this.filter = filter;
+    }
+
+    public Predicate<BlockState> getFilter() {
+        return this.filter;
+    }
+
+    public void setFilter(Predicate<BlockState> filter) {
+        this.filter = filter;
+        this.invalidate();
+    }
+
+    public void invalidate() {
+        this.generation++;
+    }
+
+    public short @Nullable [] getIfCurrent(ChunkSection section) {
+        var entry = this.getCurrentEntry(section);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.matches == null && entry.pending != null && entry.pending.matches.isDone() && !entry.pending.matches.isCompletedExceptionally()) {
+            // a shared scan finished, e.g. for a cast that was cancelled before taking the result, keep just the matches
+            var matches = entry.pending.matches.join();
+            this.put(section, entry.modCount, entry.generation, matches);
+            return matches;
+        }
+        return entry.matches;
+    }
+
+    public void put(ChunkSection section, int modCount, int generation, short[] matches) {
+        var tracked = (TrackedSection) section;
+        // a scan of an older state of the section, or with an older filter, would be outdated right away
+        if (modCount == tracked.magisterium$getModCount() && generation == this.generation) {
+            tracked.magisterium$getTargetCaches().put(this, new Entry(modCount, this.generation, matches, null));
+        }
+    }
+
+    // scans a copy of the section on a worker thread, or returns the scan of it that's already running,
+    // the caller is expected to put the result once it's done
+    public Scan scanAsync(ChunkSection section) {
+        var tracked = (TrackedSection) section;
+        var entry = this.getCurrentEntry(section);
+        if (entry != null && entry.pending != null && !entry.pending.matches.isCompletedExceptionally()) {
+            return entry.pending;
+        }
+        var states = section.getBlockStateContainer().copy();
+        var filter = this.filter;
+        var scan = new Scan(tracked.magisterium$getModCount(), this.generation, states, CompletableFuture.supplyAsync(() -> scan(states, filter), Util.getMainWorkerExecutor()));
+        tracked.magisterium$getTargetCaches().put(this, new Entry(scan.modCount, this.generation, null, scan));
+        return scan;
+    }
+
+    private @Nullable Entry getCurrentEntry(ChunkSection section) {
+        var tracked = (TrackedSection) section;
+        var entry = tracked.magisterium$getTargetCaches().get(this);
+        if (entry == null || entry.generation != this.generation || entry.modCount != tracked.magisterium$getModCount()) {
+            return null;
+        }
+        return entry;
+    }
+
+    // visits the cached positions within the box, scanning the section first if they aren't current,
+    // returns roughly how many positions were read
+    public int visit(ChunkSection section, int sectionX, int sectionY, int sectionZ, BlockBox box, BlockVisitor visitor) {
+        if (section.isEmpty()) {
+            return 1;
+        }
+        var matches = this.getIfCurrent(section);
+        int scanned = 0;
+        if (matches == null) {
+            var states = section.getBlockStateContainer();
+            matches = this.scan(states);
+            this.put(section, ((TrackedSection) section).magisterium$getModCount(), this.generation, matches);
+            scanned = matches == NONE ? 1 : 16 * 16 * 16;
+        }
+        return scanned + visit(section.getBlockStateContainer(), matches, sectionX, sectionY, sectionZ, box, visitor);
+    }
+
+    public short[] scan(PalettedContainer<BlockState> states) {
+        return scan(states, this.filter);
+    }
+
+    private static short[] scan(PalettedContainer<BlockState> states, Predicate<BlockState> filter) {
+        if (!states.hasAny(filter)) {
+            return NONE;
+        }
+        var matches = new short[16 * 16 * 16];
+        int count = 0;
+        for (int index = 0; index < matches.length; index++) {
+            if (filter.test(states.get(index & 15, index >> 8, (index >> 4) & 15))) {
+                matches[count++] = (short) index;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    public static int visit(PalettedContainer<BlockState> states, short[] matches, int sectionX, int sectionY, int sectionZ, BlockBox box, BlockVisitor visitor) {
+        int originX = ChunkSectionPos.getBlockCoord(sectionX);
+        int originY = ChunkSectionPos.getBlockCoord(sectionY);
+        int originZ = ChunkSectionPos.getBlockCoord(sectionZ);
+        var pos = new BlockPos.Mutable();
+        for (short index : matches) {
+            int x = index & 15, y = index >> 8, z = (index >> 4) & 15;
+            if (box.contains(originX + x, originY + y, originZ + z)) {
+                visitor.visit(pos.set(originX + x, originY + y, originZ + z), states.get(x, y, z));
+            }
+        }
+        return matches.length + 1;
+    }
+
+    // either the matches or a scan that will produce them
+    public record Entry(int modCount, int generation, short @Nullable [] matches, @Nullable Scan pending) {
+    }
+
+    public record Scan(int modCount, int generation, PalettedContainer<BlockState> states, CompletableFuture<short[]> matches) {
+    }
+}
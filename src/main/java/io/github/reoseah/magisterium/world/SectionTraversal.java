@@ -0,0 +1,156 @@
+package io.github.reoseah.magisterium.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Predicate;
+
+// Walks a box one chunk section at a time, reading states straight from the paletted containers
+// and skipping sections whose palette has nothing the filter accepts.
+public class SectionTraversal {
+    private final BlockBox box;
+    private final Predicate<BlockState> filter;
+
+    private final int minSectionX, minSectionY, minSectionZ;
+    private final int maxSectionX, maxSectionY, maxSectionZ;
+
+    private int sectionX, sectionY, sectionZ;
+
+    public SectionTraversal(BlockBox box, Predicate<BlockState> filter) {
+        this.box = box;
+        this.filter = filter;
+
+        this.minSectionX = ChunkSectionPos.getSectionCoord(box.getMinX());
+        this.minSectionY = ChunkSectionPos.getSectionCoord(box.getMinY());
+        this.minSectionZ = ChunkSectionPos.getSectionCoord(box.getMinZ());
+        this.maxSectionX = ChunkSectionPos.getSectionCoord(box.getMaxX());
+        this.maxSectionY = ChunkSectionPos.getSectionCoord(box.getMaxY());
+        this.maxSectionZ = ChunkSectionPos.getSectionCoord(box.getMaxZ());
+
+        this.sectionX = this.minSectionX;
+        this.sectionY = this.minSectionY;
+        this.sectionZ = this.minSectionZ;
+    }
+
+    public static void visitAll(World world, BlockBox box, Predicate<BlockState> filter, BlockVisitor visitor) {
+        var traversal = new SectionTraversal(box, filter);
+        while (!traversal.isDone()) {
+            traversal.visitNext(world, visitor);
+        }
+    }
+
+    public boolean isDone() {
+        return this.sectionX > this.maxSectionX;
+    }
+
+    // returns how many positions were read, so callers can account the work against a budget
+    public int visitNext(World world, BlockVisitor visitor) {
+        if (this.isDone()) {
+            return 0;
+        }
+        int visited = visitSection(world, this.sectionX, this.sectionY, this.sectionZ, this.box, this.filter, visitor);
+        this.skipNext();
+        return visited;
+    }
+
+    public void skipNext() {
+        // Y is the innermost coordinate so that sections of the same chunk are visited together
+        if (++this.sectionY > this.maxSectionY) {
+            this.sectionY = this.minSectionY;
+            if (++this.sectionZ > this.maxSectionZ) {
+                this.sectionZ = this.minSectionZ;
+                this.sectionX++;
+            }
+        }
+    }
+
+    // checks without loading the chunk, so callers can wait for it instead of loading it synchronously
+    public boolean isNextSectionLoaded(World world) {
+        return world.getChunkManager().isChunkLoaded(this.sectionX, this.sectionZ);
+    }
+
+    public int getSectionX() {
+        return this.sectionX;
+    }
+
+    public int getSectionY() {
+        return this.sectionY;
+    }
+
+    public int getSectionZ() {
+        return this.sectionZ;
+    }
+
+    public static int visitSection(World world, int sectionX, int sectionY, int sectionZ, BlockBox box, Predicate<BlockState> filter, BlockVisitor visitor) {
+        var section = getSection(world, sectionX, sectionY, sectionZ);
+        return section == null ? 0 : visitSection(section, sectionX, sectionY, sectionZ, box, filter, visitor);
+    }
+
+    public static int visitSection(ChunkSection section, int sectionX, int sectionY, int sectionZ, BlockBox box, Predicate<BlockState> filter, BlockVisitor visitor) {
+        if (section.isEmpty()) {
+            return 1;
+        }
+        return visitStates(section.getBlockStateContainer(), sectionX, sectionY, sectionZ, box, filter, visitor);
+    }
+
+    // doesn't touch the world, so it can run off the server thread on a copy of the container
+    public static int visitStates(PalettedContainer<BlockState> states, int sectionX, int sectionY, int sectionZ, BlockBox box, Predicate<BlockState> filter, BlockVisitor visitor) {
+        if (!states.hasAny(filter)) {
+            return 1;
+        }
+
+        int originX = ChunkSectionPos.getBlockCoord(sectionX);
+        int originY = ChunkSectionPos.getBlockCoord(sectionY);
+        int originZ = ChunkSectionPos.getBlockCoord(sectionZ);
+
+        int minX = Math.max(box.getMinX() - originX, 0), maxX = Math.min(box.getMaxX() - originX, 15);
+        int minY = Math.max(box.getMinY() - originY, 0), maxY = Math.min(box.getMaxY() - originY, 15);
+        int minZ = Math.max(box.getMinZ() - originZ, 0), maxZ = Math.min(box.getMaxZ() - originZ, 15);
+
+        var pos = new BlockPos.Mutable();
+        // same order as the container's storage: y, then z, then x
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    BlockState state = states.get(x, y, z);
+                    if (filter.test(state)) {
+                        visitor.visit(pos.set(originX + x, originY + y, originZ + z), state);
+                    }
+                }
+            }
+        }
+        return (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+    }
+
+    public static int getClippedVolume(int sectionX, int sectionY, int sectionZ, BlockBox box) {
+        int originX = ChunkSectionPos.getBlockCoord(sectionX);
+        int originY = ChunkSectionPos.getBlockCoord(sectionY);
+        int originZ = ChunkSectionPos.getBlockCoord(sectionZ);
+        int sizeX = Math.min(box.getMaxX() - originX, 15) - Math.max(box.getMinX() - originX, 0) + 1;
+        int sizeY = Math.min(box.getMaxY() - originY, 15) - Math.max(box.getMinY() - originY, 0) + 1;
+        int sizeZ = Math.min(box.getMaxZ() - originZ, 15) - Math.max(box.getMinZ() - originZ, 0) + 1;
+        return Math.max(sizeX, 0) * Math.max(sizeY, 0) * Math.max(sizeZ, 0);
+    }
+
+    public static @Nullable ChunkSection getSection(World world, int sectionX, int sectionY, int sectionZ) {
+        if (sectionY < world.getBottomSectionCoord() || sectionY >= world.getTopSectionCoord()) {
+            return null;
+        }
+        return world.getChunk(sectionX, sectionZ).getSection(world.sectionCoordToIndex(sectionY));
+    }
+
+    // copies the states of a section, or returns null if there's nothing the filter could match in it
+    public static @Nullable PalettedContainer<BlockState> snapshot(World world, int sectionX, int sectionY, int sectionZ, Predicate<BlockState> filter) {
+        var section = getSection(world, sectionX, sectionY, sectionZ);
+        if (section == null || section.isEmpty() || !section.hasAny(filter)) {
+            return null;
+        }
+        return section.getBlockStateContainer().copy();
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.reoseah.magisterium.world;
+
+import io.github.reoseah.magisterium.MagisteriumAttachments;
+import io.github.reoseah.magisterium.MagisteriumGameRules;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectAVLTreeMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.registry.tag.BlockTags;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.function.LongConsumer;
+
+// Fire placed by spells in a world, capped by maxSpellFires and burnt out after spellFireDuration.
+// Tracking isn't saved, after a restart they burn like any other fire.
+public class SpellFires {
+    // how many fires may burn out per tick, the rest wait for the next one
+    private static final int BURN_OUT_PER_TICK = 256;
+
+    // position -> tick when it burns out, Long.MAX_VALUE if never
+    private final Long2LongOpenHashMap fires = new Long2LongOpenHashMap();
+    // tick -> positions burning out then, fires that never burn out aren't scheduled
+    private final Long2ObjectAVLTreeMap<LongLinkedOpenHashSet> schedule = new Long2ObjectAVLTreeMap<>();
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> byChunk = new Long2ObjectOpenHashMap<>();
+
+    public static SpellFires get(ServerWorld world) {
+        return world.getAttachedOrCreate(MagisteriumAttachments.SPELL_FIRES);
+    }
+
+    public boolean isFull(ServerWorld world) {
+        return this.fires.size() >= world.getGameRules().getInt(MagisteriumGameRules.MAX_SPELL_FIRES);
+    }
+
+    public void add(ServerWorld world, BlockPos pos) {
+        int duration = world.getGameRules().getInt(MagisteriumGameRules.SPELL_FIRE_DURATION);
+        long packed = pos.asLong();
+        long burnOut = duration > 0 ? world.getTime() + duration : Long.MAX_VALUE;
+        this.remove(packed);
+        this.fires.put(packed, burnOut);
+        if (burnOut != Long.MAX_VALUE) {
+            this.schedule.computeIfAbsent(burnOut, key -> new LongLinkedOpenHashSet()).add(packed);
+        }
+        this.byChunk.computeIfAbsent(ChunkPos.toLong(pos), key -> new LongOpenHashSet()).add(packed);
+    }
+
+    public void forEach(int chunkX, int chunkZ, BlockBox box, LongConsumer consumer) {
+        var positions = this.byChunk.get(ChunkPos.toLong(chunkX, chunkZ));
+        if (positions == null) {
+            return;
+        }
+        var iterator = positions.iterator();
+        while (iterator.hasNext()) {
+            long packed = iterator.nextLong();
+            if (box.contains(BlockPos.unpackLongX(packed), BlockPos.unpackLongY(packed), BlockPos.unpackLongZ(packed))) {
+                consumer.accept(packed);
+            }
+        }
+    }
+
+    public int count(int chunkX, int chunkZ) {
+        var positions = this.byChunk.get(ChunkPos.toLong(chunkX, chunkZ));
+        return positions == null ? 0 : positions.size();
+    }
+
+    public void tick(ServerWorld world) {
+        if (this.schedule.isEmpty() || this.schedule.firstLongKey() > world.getTime()) {
+            return;
+        }
+        var changes = new BlockChangeBatch(world, null, null);
+        var pos = new BlockPos.Mutable();
+        for (int i = 0; i < BURN_OUT_PER_TICK && !this.schedule.isEmpty() && this.schedule.firstLongKey() <= world.getTime(); i++) {
+            long packed = this.schedule.get(this.schedule.firstLongKey()).firstLong();
+            this.remove(packed);
+            pos.set(packed);
+            if (world.getChunkManager().isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))
+                    && world.getBlockState(pos).isIn(BlockTags.FIRE)) {
+                changes.set(pos, Blocks.AIR.getDefaultState());
+            }
+        }
+        changes.apply();
+    }
+
+    public void onChunkUnloaded(WorldChunk chunk) {
+        var positions = this.byChunk.remove(chunk.getPos().toLong());
+        if (positions != null) {
+            var iterator = positions.iterator();
+            while (iterator.hasNext()) {
+                this.unschedule(iterator.nextLong());
+            }
+        }
+    }
+
+    public static void onStateChanged(World world, BlockPos pos, BlockState previous, BlockState state) {
+        if (world instanceof ServerWorld serverWorld && previous.isIn(BlockTags.FIRE) && !state.isIn(BlockTags.FIRE)) {
+            var fires = serverWorld.getAttached(MagisteriumAttachments.SPELL_FIRES);
+            if (fires != null) {
+                fires.remove(pos.asLong());
+            }
+        }
+    }
+
+    private void remove(long packed) {
+        if (this.fires.containsKey(packed)) {
+            this.unschedule(packed);
+            long chunk = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(packed)), ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(packed)));
+            var positions = this.byChunk.get(chunk);
+            if (positions != null && positions.remove(packed) && positions.isEmpty()) {
+                this.byChunk.remove(chunk);
+            }
+        }
+    }
+
+    private void unschedule(long packed) {
+        long burnOut = this.fires.remove(packed);
+        var positions = this.schedule.get(burnOut);
+        if (positions != null && positions.remove(packed) && positions.isEmpty()) {
+            this.schedule.remove(burnOut);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.reoseah.magisterium.world;
+
+import io.github.reoseah.magisterium.Magisterium;
+import io.github.reoseah.magisterium.MagisteriumAttachments;
+import io.github.reoseah.magisterium.MagisteriumGameRules;
+import it.unimi.dsi.fastutil.longs.Long2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Recent casts in a world with the block changes they made, so that an admin can roll one back.
+// With spellJournalToDisk, casts are written to the world folder when pushed out of memory or on save,
+// together with the id counter so that ids stay unique across restarts.
+public class SpellJournal {
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long lastId = -1;
+    private long lastSavedId = -1;
+
+    public static SpellJournal get(ServerWorld world) {
+        return world.getAttachedOrCreate(MagisteriumAttachments.SPELL_JOURNAL);
+    }
+
+    public void add(ServerWorld world, String caster, ChangeJournal changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (this.lastId == -1) {
+            this.lastId = readLastId(world);
+            this.lastSavedId = this.lastId;
+        }
+        this.lastId = Math.max(this.lastId + 1, world.getTime());
+        this.entries.addLast(new Entry(this.lastId, caster, world.getTime(), changes));
+
+        int capacity = world.getGameRules().getInt(MagisteriumGameRules.SPELL_JOURNAL_SIZE);
+        while (this.entries.size() > capacity) {
+            var evicted = this.entries.removeFirst();
+            if (evicted.id > this.lastSavedId && world.getGameRules().getBoolean(MagisteriumGameRules.SPELL_JOURNAL_TO_DISK)) {
+                var path = getPath(world, evicted.id);
+                Util.getIoWorkerExecutor().execute(() -> write(path, evicted));
+            }
+        }
+    }
+
+    // called when the world is saved, writes the entries not yet on disk and the id counter,
+    // on the calling thread when the server is stopping so that nothing is lost
+    public static void save(ServerWorld world, boolean flush) {
+        var journal = world.getAttached(MagisteriumAttachments.SPELL_JOURNAL);
+        if (journal == null || journal.lastId <= journal.lastSavedId || !world.getGameRules().getBoolean(MagisteriumGameRules.SPELL_JOURNAL_TO_DISK)) {
+            return;
+        }
+        var pending = new ArrayList<Entry>();
+        for (var entry : journal.entries) {
+            if (entry.id > journal.lastSavedId) {
+                pending.add(entry);
+            }
+        }
+        long lastId = journal.lastId;
+        journal.lastSavedId = lastId;
+
+        var directory = getDirectory(world);
+        Runnable task = () -> {
+            for (var entry : pending) {
+                write(directory.resolve(entry.id + ".bin"), entry);
+            }
+            writeLastId(directory, lastId);
+        };
+        if (flush) {
+            task.run();
+        } else {
+            Util.getIoWorkerExecutor().execute(task);
+        }
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(this.entries);
+    }
+
+    public @Nullable Entry find(ServerWorld world, long id) {
+        for (var entry : this.entries) {
+            if (entry.id == id) {
+                return entry;
+            }
+        }
+        var path = getPath(world, id);
+        return Files.exists(path) ? read(path, id) : null;
+    }
+
+    // restores the states from before the cast, except where the block has been changed since
+    // or its chunk isn't loaded,
+    // returns how many blocks were restored
+    public static int rollback(ServerWorld world, ChangeJournal changes) {
+        // a position can be changed more than once in a cast, the first old and the last new state matter
+        var oldStates = new Long2IntLinkedOpenHashMap();
+        var newStates = new Long2IntOpenHashMap();
+        for (int i = 0; i < changes.size(); i++) {
+            oldStates.putIfAbsent(changes.getPos(i), i);
+            newStates.put(changes.getPos(i), i);
+        }
+        var batch = new BlockChangeBatch(world, null, null);
+        var pos = new BlockPos.Mutable();
+        int restored = 0;
+        for (var entry : oldStates.long2IntEntrySet()) {
+            pos.set(entry.getLongKey());
+            if (!world.getChunkManager().isChunkLoaded(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()))) {
+                continue;
+            }
+            if (world.getBlockState(pos) == changes.getNewState(newStates.get(entry.getLongKey()))) {
+                batch.set(pos, changes.getOldState(entry.getIntValue()));
+                restored++;
+            }
+        }
+        batch.apply();
+        return restored;
+    }
+
+    private static Path getDirectory(ServerWorld world) {
+        var dimension = world.getRegistryKey().getValue();
+        return world.getServer().getSavePath(WorldSavePath.ROOT) //
+                .resolve("magisterium/journal/" + dimension.getNamespace() + "/" + dimension.getPath());
+    }
+
+    private static Path getPath(ServerWorld world, long id) {
+        return getDirectory(world).resolve(id + ".bin");
+    }
+
+    // the counter is written on save, entries pushed out of memory after it are found by their file names
+    private static long readLastId(ServerWorld world) {
+        var directory = getDirectory(world);
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long lastId = 0;
+        try (var files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                var name = file.getFileName().toString();
+                if (name.equals("last_id")) {
+                    lastId = Math.max(lastId, Long.parseLong(Files.readString(file).trim()));
+                } else if (name.endsWith(".bin")) {
+                    lastId = Math.max(lastId, Long.parseLong(name.substring(0, name.length() - 4)));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            Magisterium.LOGGER.error("Failed to read spell journal counter in {}", directory, e);
+        }
+        return lastId;
+    }
+
+    private static void writeLastId(Path directory, long lastId) {
+        var path = directory.resolve("last_id");
+        try {
+            Files.createDirectories(directory);
+            Files.writeString(path, Long.toString(lastId));
+        } catch (IOException e) {
+            Magisterium.LOGGER.error("Failed to write spell journal counter {}", path, e);
+        }
+    }
+
+    private static void write(Path path, Entry entry) {
+        try {
+            Files.createDirectories(path.getParent());
+            try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(path))))) {
+                out.writeUTF(entry.caster);
+                out.writeLong(entry.time);
+                entry.changes.write(out);
+            }
+        } catch (IOException e) {
+            Magisterium.LOGGER.error("Failed to write spell journal {}", path, e);
+        }
+    }
+
+    private static @Nullable Entry read(Path path, long id) {
+        try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(path))))) {
+            String caster = in.readUTF();
+            long time = in.readLong();
+            return new Entry(id, caster, time, ChangeJournal.read(in));
+        } catch (IOException e) {
+            Magisterium.LOGGER.error("Failed to read spell journal {}", path, e);
+            return null;
+        }
+    }
+
+    public record Entry(long id, String caster, long time, ChangeJournal changes) {
+    }
+}
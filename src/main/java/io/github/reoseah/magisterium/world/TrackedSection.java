@@ -0,0 +1,10 @@
+package io.github.reoseah.magisterium.world;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+
+// Implemented on ChunkSection by a mixin, the modification count is bumped on every block change.
+public interface TrackedSection {
+    int magisterium$getModCount();
+
+    Reference2ObjectMap<SectionTargetCache, SectionTargetCache.Entry> magisterium$getTargetCaches();
+}